@@ -4,6 +4,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EntityScan({
@@ -24,6 +25,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
         "nl.pkock.brewhub_backend.guide.repository",
         "nl.pkock.brewhub_backend.recipe.repository"
 })
+@EnableScheduling
 public class BrewhubBackendApplication {
     public static void main(String[] args) {
         SpringApplication.run(BrewhubBackendApplication.class, args);
@@ -5,20 +5,26 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import nl.pkock.brewhub_backend.auth.dto.LoginRequest;
 import nl.pkock.brewhub_backend.auth.dto.SignUpRequest;
+import nl.pkock.brewhub_backend.auth.security.JwtKeyStore;
 import nl.pkock.brewhub_backend.auth.services.AuthService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 public class AuthController {
     private final AuthService authService;
+    private final JwtKeyStore jwtKeyStore;
 
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        return ResponseEntity.ok(authService.authenticateUser(loginRequest));
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                              HttpServletRequest request) {
+        // Behind a trusted proxy this is the forwarded client address, see server.forward-headers-strategy
+        return ResponseEntity.ok(authService.authenticateUser(loginRequest, request.getRemoteAddr()));
     }
 
     @PostMapping("/signup")
@@ -39,4 +45,19 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(HttpServletRequest request) {
+        try {
+            authService.logout(request.getHeader("Authorization"));
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok(jwtKeyStore.getJwks());
+    }
 }
\ No newline at end of file
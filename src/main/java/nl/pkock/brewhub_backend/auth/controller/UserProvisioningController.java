@@ -0,0 +1,34 @@
+package nl.pkock.brewhub_backend.auth.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import nl.pkock.brewhub_backend.auth.services.UserProvisioningService;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/moderator/users")
+@PreAuthorize("hasRole('MODERATOR')")
+@RequiredArgsConstructor
+public class UserProvisioningController {
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final UserProvisioningService userProvisioningService;
+
+    @PostMapping(value = "/bulk", consumes = {NDJSON, "text/csv"}, produces = NDJSON)
+    public void provisionUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        if (contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))) {
+            userProvisioningService.provisionCsv(request.getInputStream(), response.getOutputStream());
+        } else {
+            userProvisioningService.provisionJsonLines(request.getInputStream(), response.getOutputStream());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package nl.pkock.brewhub_backend.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProvisioningResult {
+    private int row;
+    private String email;
+    private Status status;
+    private Long userId;
+    private String message;
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+}
@@ -0,0 +1,13 @@
+package nl.pkock.brewhub_backend.auth.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class LoginUnavailableException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public LoginUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
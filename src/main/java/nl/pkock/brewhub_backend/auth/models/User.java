@@ -2,14 +2,19 @@ package nl.pkock.brewhub_backend.auth.models;
 
 import jakarta.persistence.*;
 import java.math.BigDecimal;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import nl.pkock.brewhub_backend.auth.security.UserCacheEvictionListener;
 import nl.pkock.brewhub_backend.rating.model.Rating;
 
 import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_role_mask", columnList = "role_mask"))
+@EntityListeners(UserCacheEvictionListener.class)
 @Data
 public class User {
     @Id
@@ -37,10 +42,16 @@ public class User {
     @Column
     private Integer totalRatings;
 
+    // Derived from roles; only setRoles writes it
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Setter(AccessLevel.NONE)
+    private Integer roleMask = 0;
+
     @OneToMany(mappedBy = "retailer")
     private List<Rating> receivedRatings;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(
             name = "users_roles",
             joinColumns = @JoinColumn(name = "user_id")
@@ -48,4 +59,19 @@ public class User {
     @Column(name = "roles")
     @Enumerated(EnumType.STRING)
     private Set<UserRole> roles;
-}
\ No newline at end of file
+
+    public void setRoles(Set<UserRole> roles) {
+        this.roles = roles;
+        this.roleMask = UserRole.toMask(roles);
+    }
+
+    public boolean hasRole(UserRole role) {
+        return role.isIn(roleMask);
+    }
+
+    public UserRole getPrimaryRole() {
+        return UserRole.fromMask(roleMask).stream()
+                .findFirst()
+                .orElse(UserRole.USER);
+    }
+}
@@ -1,7 +1,68 @@
 package nl.pkock.brewhub_backend.auth.models;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
 public enum UserRole {
     USER,
     RETAILER,
-    MODERATOR
-}
\ No newline at end of file
+    MODERATOR;
+
+    private static final UserRole[] VALUES = values();
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    public boolean isIn(int roleMask) {
+        return (roleMask & mask()) != 0;
+    }
+
+    public static UserRole fromName(String name) {
+        if (name != null) {
+            return switch (name.trim().toUpperCase()) {
+                case "RETAILER" -> RETAILER;
+                case "MODERATOR" -> MODERATOR;
+                default -> USER;
+            };
+        }
+        return USER;
+    }
+
+    public static int toMask(Collection<UserRole> roles) {
+        int mask = 0;
+        if (roles != null) {
+            for (UserRole role : roles) {
+                mask |= role.mask();
+            }
+        }
+        return mask;
+    }
+
+    public static Set<UserRole> fromMask(int roleMask) {
+        Set<UserRole> roles = EnumSet.noneOf(UserRole.class);
+        for (UserRole role : VALUES) {
+            if (role.isIn(roleMask)) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+
+    /**
+     * All mask values that include this role, so lookups can use an indexed
+     * {@code IN} predicate instead of bitwise arithmetic in the query.
+     */
+    public List<Integer> masksContaining() {
+        List<Integer> masks = new ArrayList<>();
+        for (int mask = 1; mask < 1 << VALUES.length; mask++) {
+            if (isIn(mask)) {
+                masks.add(mask);
+            }
+        }
+        return masks;
+    }
+}
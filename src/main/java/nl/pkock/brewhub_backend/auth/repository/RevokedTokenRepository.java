@@ -0,0 +1,25 @@
+package nl.pkock.brewhub_backend.auth.repository;
+
+import nl.pkock.brewhub_backend.auth.models.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    boolean existsByJtiAndExpiresAtAfter(String jti, LocalDateTime now);
+
+    @Query("SELECT r.jti FROM RevokedToken r WHERE r.expiresAt > ?1")
+    List<String> findActiveJtis(LocalDateTime now);
+
+    @Query("SELECT r.jti FROM RevokedToken r WHERE r.revokedAt > ?1 AND r.expiresAt > ?2")
+    List<String> findJtisRevokedAfter(LocalDateTime since, LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= ?1")
+    int deleteExpired(LocalDateTime now);
+}
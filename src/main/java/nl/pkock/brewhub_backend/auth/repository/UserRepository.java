@@ -1,15 +1,22 @@
 package nl.pkock.brewhub_backend.auth.repository;
 
 import nl.pkock.brewhub_backend.auth.models.User;
-import nl.pkock.brewhub_backend.auth.models.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
-    List<User> findByRolesContaining(UserRole role);
+    @Query("SELECT u.roleMask FROM User u WHERE u.id = :id")
+    Optional<Integer> findRoleMaskById(@Param("id") Long id);
+    List<User> findByRoleMaskIn(Collection<Integer> roleMasks);
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
\ No newline at end of file
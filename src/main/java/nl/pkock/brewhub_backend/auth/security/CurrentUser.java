@@ -0,0 +1,33 @@
+package nl.pkock.brewhub_backend.auth.security;
+
+import lombok.RequiredArgsConstructor;
+import nl.pkock.brewhub_backend.auth.models.User;
+import nl.pkock.brewhub_backend.auth.repository.UserRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out users as references for write paths that only need the foreign key.
+ * The caller of the current request was already resolved by the JWT filter, so its
+ * reference costs no query; any other id is checked with an id-only lookup first.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUser {
+    private final UserRepository userRepository;
+
+    public User reference(Long userId) {
+        if (!isAuthenticatedAs(userId) && !userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        return userRepository.getReferenceById(userId);
+    }
+
+    private static boolean isAuthenticatedAs(Long userId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null
+                && authentication.getPrincipal() instanceof UserPrincipal principal
+                && principal.getId().equals(userId);
+    }
+}
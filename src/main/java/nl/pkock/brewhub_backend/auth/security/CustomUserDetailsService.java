@@ -12,25 +12,42 @@ import org.springframework.transaction.annotation.Transactional;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, UserPrincipalCache userPrincipalCache) {
         this.userRepository = userRepository;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        UserPrincipal cached = userPrincipalCache.getByEmail(email);
+        if (cached != null) {
+            return cached;
+        }
+
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email : " + email));
 
-        return UserPrincipal.create(user);
+        return cache(UserPrincipal.create(user));
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserById(Long id) {
+        UserPrincipal cached = userPrincipalCache.getById(id);
+        if (cached != null) {
+            return cached;
+        }
+
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id : " + id));
 
-        return UserPrincipal.create(user);
+        return cache(UserPrincipal.create(user));
+    }
+
+    private UserPrincipal cache(UserPrincipal principal) {
+        userPrincipalCache.put(principal);
+        return principal;
     }
-}
\ No newline at end of file
+}
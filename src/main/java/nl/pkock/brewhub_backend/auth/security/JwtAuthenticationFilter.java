@@ -1,9 +1,11 @@
 package nl.pkock.brewhub_backend.auth.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import nl.pkock.brewhub_backend.auth.services.TokenRevocationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -22,10 +24,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService customUserDetailsService;
+    private final TokenRevocationService tokenRevocationService;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, CustomUserDetailsService customUserDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider,
+                                   CustomUserDetailsService customUserDetailsService,
+                                   TokenRevocationService tokenRevocationService) {
         this.tokenProvider = tokenProvider;
         this.customUserDetailsService = customUserDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -38,12 +44,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             logger.debug("Processing request to '{}' with JWT: {}", request.getRequestURI(), jwt != null ? "present" : "absent");
 
             if (StringUtils.hasText(jwt)) {
-                if (tokenProvider.validateToken(jwt)) {
-                    Long userId = tokenProvider.getUserIdFromJWT(jwt);
-                    logger.debug("JWT valid for user ID: {}", userId);
+                Claims claims = tokenProvider.parseClaims(jwt);
+                UserDetails userDetails = claims != null ? resolveUserDetails(claims) : null;
 
-                    UserDetails userDetails = customUserDetailsService.loadUserById(userId);
-                    logger.debug("User loaded: {} with authorities: {}",
+                if (userDetails != null) {
+                    logger.debug("User resolved: {} with authorities: {}",
                             userDetails.getUsername(),
                             userDetails.getAuthorities());
 
@@ -65,6 +70,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private UserDetails resolveUserDetails(Claims claims) {
+        if (tokenRevocationService.isRevoked(claims.getId())) {
+            logger.debug("JWT {} has been revoked", claims.getId());
+            return null;
+        }
+
+        if (tokenProvider.isStateless()) {
+            UserPrincipal principal = tokenProvider.getPrincipalFromClaims(claims);
+            if (principal != null) {
+                return principal;
+            }
+        }
+
+        Long userId = Long.parseLong(claims.getSubject());
+        logger.debug("JWT valid for user ID: {}, loading user", userId);
+
+        return customUserDetailsService.loadUserById(userId);
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
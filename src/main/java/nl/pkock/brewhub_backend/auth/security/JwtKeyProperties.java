@@ -0,0 +1,36 @@
+package nl.pkock.brewhub_backend.auth.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.jwt.rsa")
+public class JwtKeyProperties {
+    /**
+     * Key id used to sign new tokens. Must refer to an entry in {@link #keys} with a private key.
+     */
+    private String activeKeyId;
+
+    /**
+     * RSA keys by key id. Base64 encoded DER (PKCS#8 private, X.509 public); PEM armour is accepted.
+     * Retired keys keep only their public key so tokens signed with them stay valid until expiry.
+     */
+    private Map<String, Key> keys = new LinkedHashMap<>();
+
+    /**
+     * Generate a throwaway key when none is configured. Only meant for tests: tokens signed
+     * with it do not survive a restart or verify on other nodes.
+     */
+    private boolean allowEphemeralKey = false;
+
+    @Data
+    public static class Key {
+        private String privateKey;
+        private String publicKey;
+    }
+}
@@ -0,0 +1,177 @@
+package nl.pkock.brewhub_backend.auth.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.SecretKey;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Component
+public class JwtKeyStore extends SigningKeyResolverAdapter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyStore.class);
+
+    private final String activeKeyId;
+    private final PrivateKey signingKey;
+    private final Map<String, RSAPublicKey> verificationKeys;
+    private final SecretKey legacyKey;
+    private final Instant legacyAcceptUntil;
+    private final Map<String, Object> jwks;
+
+    public JwtKeyStore(JwtKeyProperties properties,
+                       @Value("${app.jwt.legacy.secret:}") String legacySecret,
+                       @Value("${app.jwt.legacy.accept-until:}") String legacyAcceptUntil,
+                       @Value("${app.jwt.expiration}") long tokenLifetimeMs) {
+        Map<String, RSAPublicKey> publicKeys = new LinkedHashMap<>();
+        PrivateKey privateKey = null;
+        String keyId = properties.getActiveKeyId();
+
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            for (Map.Entry<String, JwtKeyProperties.Key> entry : properties.getKeys().entrySet()) {
+                JwtKeyProperties.Key key = entry.getValue();
+                if (StringUtils.hasText(key.getPublicKey())) {
+                    publicKeys.put(entry.getKey(), (RSAPublicKey) keyFactory.generatePublic(
+                            new X509EncodedKeySpec(decode(key.getPublicKey()))));
+                }
+                if (entry.getKey().equals(keyId) && StringUtils.hasText(key.getPrivateKey())) {
+                    privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decode(key.getPrivateKey())));
+                }
+            }
+
+            if (privateKey == null || !publicKeys.containsKey(keyId)) {
+                if (!properties.isAllowEphemeralKey()) {
+                    throw new IllegalStateException("No RSA signing key configured: set app.jwt.rsa.active-key-id " +
+                            "and a private and public key under app.jwt.rsa.keys");
+                }
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+                KeyPair keyPair = generator.generateKeyPair();
+                keyId = "ephemeral-" + UUID.randomUUID();
+                privateKey = keyPair.getPrivate();
+                publicKeys.put(keyId, (RSAPublicKey) keyPair.getPublic());
+                logger.warn("No RSA signing key configured under app.jwt.rsa, using ephemeral key {}. " +
+                        "Tokens will not survive a restart or verify on other nodes.", keyId);
+            }
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not load JWT signing keys", e);
+        }
+
+        if (StringUtils.hasText(legacySecret)) {
+            if (!StringUtils.hasText(legacyAcceptUntil)) {
+                throw new IllegalStateException("app.jwt.legacy.secret requires app.jwt.legacy.accept-until");
+            }
+            this.legacyAcceptUntil = Instant.parse(legacyAcceptUntil);
+            if (this.legacyAcceptUntil.isAfter(Instant.now().plusMillis(tokenLifetimeMs))) {
+                throw new IllegalStateException("app.jwt.legacy.accept-until may be at most one token lifetime " +
+                        "(app.jwt.expiration) away");
+            }
+            this.legacyKey = Keys.hmacShaKeyFor(legacySecret.getBytes(StandardCharsets.UTF_8));
+        } else {
+            this.legacyAcceptUntil = null;
+            this.legacyKey = null;
+        }
+
+        this.activeKeyId = keyId;
+        this.signingKey = privateKey;
+        this.verificationKeys = Collections.unmodifiableMap(publicKeys);
+        this.jwks = buildJwks(publicKeys);
+    }
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    public PrivateKey getSigningKey() {
+        return signingKey;
+    }
+
+    public Map<String, Object> getJwks() {
+        return jwks;
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(header.getAlgorithm());
+        if (algorithm.isHmac()) {
+            // Tokens issued before the switch to RS256 carry no key id and are signed with the shared secret.
+            // They are accepted only until the cutoff, and only in their original shape: issued before the
+            // cutoff and without role claims, so the user and roles are always loaded from the database.
+            if (legacyKey == null || !Instant.now().isBefore(legacyAcceptUntil)) {
+                throw new SignatureException("HMAC signed tokens are no longer accepted");
+            }
+            Date issuedAt = claims.getIssuedAt();
+            if (issuedAt == null || !issuedAt.toInstant().isBefore(legacyAcceptUntil)
+                    || claims.containsKey(JwtTokenProvider.ROLES_CLAIM)) {
+                throw new SignatureException("Not a token issued before the switch to RS256");
+            }
+            return legacyKey;
+        }
+
+        RSAPublicKey key = header.getKeyId() != null ? verificationKeys.get(header.getKeyId()) : null;
+        if (key == null) {
+            throw new SignatureException("Unknown signing key: " + header.getKeyId());
+        }
+        return key;
+    }
+
+    private static Map<String, Object> buildJwks(Map<String, RSAPublicKey> publicKeys) {
+        List<Map<String, String>> keys = new ArrayList<>();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        publicKeys.forEach((kid, key) -> {
+            Map<String, String> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "RSA");
+            jwk.put("kid", kid);
+            jwk.put("use", "sig");
+            jwk.put("alg", SignatureAlgorithm.RS256.getValue());
+            jwk.put("n", encoder.encodeToString(unsigned(key.getModulus())));
+            jwk.put("e", encoder.encodeToString(unsigned(key.getPublicExponent())));
+            keys.add(jwk);
+        });
+        return Map.of("keys", Collections.unmodifiableList(keys));
+    }
+
+    private static byte[] unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            byte[] trimmed = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, trimmed, 0, trimmed.length);
+            return trimmed;
+        }
+        return bytes;
+    }
+
+    private static byte[] decode(String key) {
+        String base64 = key.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+}
@@ -1,29 +1,47 @@
 package nl.pkock.brewhub_backend.auth.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
 
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
+    static final String ROLES_CLAIM = "roles";
+    static final String EMAIL_CLAIM = "email";
 
     @Value("${app.jwt.expiration}")
     private int jwtExpirationInMs;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Value("${app.jwt.stateless:false}")
+    private boolean stateless;
+
+    private final JwtKeyStore keyStore;
+    private final JwtParser jwtParser;
+
+    public JwtTokenProvider(JwtKeyStore keyStore) {
+        this.keyStore = keyStore;
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(keyStore)
+                .build();
+    }
+
+    public boolean isStateless() {
+        return stateless;
     }
 
     public String generateToken(Authentication authentication) {
@@ -32,33 +50,53 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
+        List<String> roles = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keyStore.getActiveKeyId())
+                .setId(UUID.randomUUID().toString())
                 .setSubject(Long.toString(userPrincipal.getId()))
+                .claim(EMAIL_CLAIM, userPrincipal.getEmail())
+                .claim(ROLES_CLAIM, roles)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(keyStore.getSigningKey(), SignatureAlgorithm.RS256)
                 .compact();
     }
 
-    public Long getUserIdFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return Long.parseLong(claims.getSubject());
-    }
-
-    public boolean validateToken(String authToken) {
+    /**
+     * Parses and verifies the token once. Returns {@code null} when the token is
+     * malformed, expired or carries an invalid signature.
+     */
+    public Claims parseClaims(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
+            return jwtParser.parseClaimsJws(token).getBody();
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return null;
+        }
+    }
+
+    /**
+     * Builds a principal from a token issued by {@link #generateToken}, or returns
+     * {@code null} for older tokens that do not carry the role claims yet.
+     */
+    public UserPrincipal getPrincipalFromClaims(Claims claims) {
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (roles == null) {
+            return null;
         }
+
+        Collection<GrantedAuthority> authorities = roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString()))
+                .collect(Collectors.toList());
+
+        return new UserPrincipal(
+                Long.parseLong(claims.getSubject()),
+                claims.get(EMAIL_CLAIM, String.class),
+                null,
+                authorities
+        );
     }
 }
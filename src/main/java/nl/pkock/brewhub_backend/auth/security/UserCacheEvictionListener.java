@@ -0,0 +1,39 @@
+package nl.pkock.brewhub_backend.auth.security;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import nl.pkock.brewhub_backend.auth.models.User;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+public class UserCacheEvictionListener {
+
+    private final UserPrincipalCache userPrincipalCache;
+
+    public UserCacheEvictionListener(UserPrincipalCache userPrincipalCache) {
+        this.userPrincipalCache = userPrincipalCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        evictUser(user.getId());
+    }
+
+    public void evictUser(Long userId) {
+        userPrincipalCache.evict(userId);
+
+        // Evict again once the change is visible to other transactions, so a concurrent
+        // load cannot put the pre-commit state back into the cache.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    userPrincipalCache.evict(userId);
+                }
+            });
+        }
+    }
+}
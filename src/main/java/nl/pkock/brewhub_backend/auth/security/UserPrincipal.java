@@ -2,6 +2,7 @@ package nl.pkock.brewhub_backend.auth.security;
 
 import lombok.Getter;
 import nl.pkock.brewhub_backend.auth.models.User;
+import nl.pkock.brewhub_backend.auth.models.UserRole;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -24,7 +25,7 @@ public class UserPrincipal implements UserDetails {
     }
 
     public static UserPrincipal create(User user) {
-        Collection<GrantedAuthority> authorities = user.getRoles().stream()
+        Collection<GrantedAuthority> authorities = UserRole.fromMask(user.getRoleMask()).stream()
                 .map(role -> new SimpleGrantedAuthority("ROLE_" + role.name()))
                 .collect(Collectors.toList());
 
@@ -40,4 +41,4 @@ public class UserPrincipal implements UserDetails {
     public String getUsername() {
         return email;
     }
-}
\ No newline at end of file
+}
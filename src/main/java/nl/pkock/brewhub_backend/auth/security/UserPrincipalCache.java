@@ -0,0 +1,121 @@
+package nl.pkock.brewhub_backend.auth.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class UserPrincipalCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<Long, Entry> byId = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> idsByEmail = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public UserPrincipalCache(@Value("${app.auth.user-cache.max-size:10000}") int maxSize,
+                              @Value("${app.auth.user-cache.ttl-seconds:300}") long ttlSeconds,
+                              MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+
+        FunctionCounter.builder("brewhub.user.cache.hits", hits, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("brewhub.user.cache.misses", misses, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("brewhub.user.cache.evictions", evictions, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("brewhub.user.cache.size", this, UserPrincipalCache::size).register(meterRegistry);
+    }
+
+    public synchronized UserPrincipal getById(Long id) {
+        Entry entry = byId.get(id);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            remove(id);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.principal;
+    }
+
+    public synchronized UserPrincipal getByEmail(String email) {
+        Long id = idsByEmail.get(email);
+        if (id == null) {
+            misses.increment();
+            return null;
+        }
+        return getById(id);
+    }
+
+    public synchronized void put(UserPrincipal principal) {
+        remove(principal.getId());
+        byId.put(principal.getId(), new Entry(principal, System.nanoTime() + ttlNanos));
+        idsByEmail.put(principal.getEmail(), principal.getId());
+
+        Iterator<Map.Entry<Long, Entry>> eldest = byId.entrySet().iterator();
+        while (byId.size() > maxSize && eldest.hasNext()) {
+            Entry evicted = eldest.next().getValue();
+            eldest.remove();
+            idsByEmail.remove(evicted.principal.getEmail());
+            evictions.increment();
+        }
+    }
+
+    public synchronized void evict(Long userId) {
+        if (userId != null && remove(userId)) {
+            evictions.increment();
+        }
+    }
+
+    public synchronized void clear() {
+        evictions.add(byId.size());
+        byId.clear();
+        idsByEmail.clear();
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private boolean remove(Long id) {
+        Entry removed = byId.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        idsByEmail.remove(removed.principal.getEmail(), id);
+        return true;
+    }
+
+    private record Entry(UserPrincipal principal, long expiresAt) {
+        boolean isExpired(long now) {
+            return now - expiresAt > 0;
+        }
+    }
+}
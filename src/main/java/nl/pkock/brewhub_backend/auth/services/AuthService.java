@@ -1,5 +1,6 @@
 package nl.pkock.brewhub_backend.auth.services;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import nl.pkock.brewhub_backend.auth.dto.AuthResponse;
 import nl.pkock.brewhub_backend.auth.dto.LoginRequest;
@@ -25,15 +26,20 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+    private final LoginExecutor loginExecutor;
+    private final LoginAttemptLimiter loginAttemptLimiter;
 
-    @Transactional
-    public AuthResponse authenticateUser(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
+    public AuthResponse authenticateUser(LoginRequest loginRequest, String clientIp) {
+        loginAttemptLimiter.registerAttempt(loginRequest.getEmail(), clientIp);
+
+        Authentication authentication = loginExecutor.execute(() -> authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         loginRequest.getEmail(),
                         loginRequest.getPassword()
                 )
-        );
+        ));
+        loginAttemptLimiter.registerSuccess(loginRequest.getEmail(), clientIp);
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = tokenProvider.generateToken(authentication);
@@ -45,7 +51,7 @@ public class AuthService {
                 jwt,
                 user.getId(),
                 user.getEmail(),
-                user.getRoles().iterator().next().name(),
+                user.getPrimaryRole().name(),
                 user.getFirstName(),
                 user.getAverageRating(),
                 user.getTotalRatings()
@@ -77,7 +83,7 @@ public class AuthService {
                 jwt,
                 savedUser.getId(),
                 savedUser.getEmail(),
-                savedUser.getRoles().iterator().next().name(),
+                savedUser.getPrimaryRole().name(),
                 savedUser.getFirstName(),
                 savedUser.getAverageRating(),
                 savedUser.getTotalRatings()
@@ -104,22 +110,16 @@ public class AuthService {
     }
 
     private UserRole determineUserRole(SignUpRequest request) {
-        if (request.getRole() != null) {
-            return switch (request.getRole().toUpperCase()) {
-                case "RETAILER" -> UserRole.RETAILER;
-                case "MODERATOR" -> UserRole.MODERATOR;
-                default -> UserRole.USER;
-            };
-        }
-        return UserRole.USER;
+        return UserRole.fromName(request.getRole());
     }
 
     @Transactional(readOnly = true)
     public AuthResponse verifyToken(String token) {
         if (token != null && token.startsWith("Bearer ")) {
             token = token.substring(7);
-            if (tokenProvider.validateToken(token)) {
-                Long userId = tokenProvider.getUserIdFromJWT(token);
+            Claims claims = tokenProvider.parseClaims(token);
+            if (claims != null && !tokenRevocationService.isRevoked(claims.getId())) {
+                Long userId = Long.parseLong(claims.getSubject());
                 User user = userRepository.findById(userId)
                         .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -127,7 +127,7 @@ public class AuthService {
                         token,
                         user.getId(),
                         user.getEmail(),
-                        user.getRoles().iterator().next().name(),
+                        user.getPrimaryRole().name(),
                         user.getFirstName(),
                         user.getAverageRating(),
                         user.getTotalRatings()
@@ -136,4 +136,16 @@ public class AuthService {
         }
         throw new RuntimeException("Invalid token");
     }
+
+    @Transactional
+    public void logout(String token) {
+        if (token != null && token.startsWith("Bearer ")) {
+            Claims claims = tokenProvider.parseClaims(token.substring(7));
+            if (claims != null) {
+                tokenRevocationService.revoke(claims);
+                return;
+            }
+        }
+        throw new RuntimeException("Invalid token");
+    }
 }
\ No newline at end of file
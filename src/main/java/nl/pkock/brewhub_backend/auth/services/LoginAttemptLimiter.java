@@ -0,0 +1,89 @@
+package nl.pkock.brewhub_backend.auth.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import nl.pkock.brewhub_backend.auth.exceptions.TooManyLoginAttemptsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class LoginAttemptLimiter {
+
+    private final int maxAttemptsPerEmail;
+    private final int maxAttemptsPerIp;
+    private final long windowMillis;
+
+    private final Map<String, Window> emailWindows = new ConcurrentHashMap<>();
+    private final Map<String, Window> ipWindows = new ConcurrentHashMap<>();
+    private final Counter throttled;
+
+    public LoginAttemptLimiter(@Value("${app.auth.login.max-attempts-per-email:10}") int maxAttemptsPerEmail,
+                               @Value("${app.auth.login.max-attempts-per-ip:50}") int maxAttemptsPerIp,
+                               @Value("${app.auth.login.attempt-window-seconds:300}") long windowSeconds,
+                               MeterRegistry meterRegistry) {
+        this.maxAttemptsPerEmail = maxAttemptsPerEmail;
+        this.maxAttemptsPerIp = maxAttemptsPerIp;
+        this.windowMillis = windowSeconds * 1000;
+        this.throttled = Counter.builder("brewhub.auth.login.throttled").register(meterRegistry);
+    }
+
+    public void registerAttempt(String email, String clientIp) {
+        long now = System.currentTimeMillis();
+        acquire(emailWindows, normalize(email), maxAttemptsPerEmail, now);
+        if (clientIp != null) {
+            acquire(ipWindows, clientIp, maxAttemptsPerIp, now);
+        }
+    }
+
+    public void registerSuccess(String email, String clientIp) {
+        emailWindows.remove(normalize(email));
+        if (clientIp != null) {
+            // Many users can share an address, so only failed logins count against it
+            ipWindows.computeIfPresent(clientIp, (key, window) -> {
+                window.attempts.updateAndGet(attempts -> Math.max(0, attempts - 1));
+                return window;
+            });
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpiredWindows() {
+        long now = System.currentTimeMillis();
+        emailWindows.values().removeIf(window -> window.isExpired(now, windowMillis));
+        ipWindows.values().removeIf(window -> window.isExpired(now, windowMillis));
+    }
+
+    private void acquire(Map<String, Window> windows, String key, int limit, long now) {
+        Window window = windows.compute(key, (k, current) ->
+                current == null || current.isExpired(now, windowMillis) ? new Window(now) : current);
+
+        if (window.attempts.incrementAndGet() > limit) {
+            throttled.increment();
+            long retryAfter = Math.max(1, (window.start + windowMillis - now) / 1000);
+            throw new TooManyLoginAttemptsException("Too many login attempts, please try again later", retryAfter);
+        }
+    }
+
+    private String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Window {
+        private final long start;
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        private Window(long start) {
+            this.start = start;
+        }
+
+        private boolean isExpired(long now, long windowMillis) {
+            return now - start >= windowMillis;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package nl.pkock.brewhub_backend.auth.services;
+
+import io.jsonwebtoken.Claims;
+import nl.pkock.brewhub_backend.auth.models.RevokedToken;
+import nl.pkock.brewhub_backend.auth.repository.RevokedTokenRepository;
+import nl.pkock.brewhub_backend.auth.security.TokenBloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    // Rows revoked on other nodes are re-read with this overlap to tolerate clock skew.
+    private static final long REFRESH_OVERLAP_SECONDS = 60;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+
+    private volatile TokenBloomFilter filter;
+    private volatile LocalDateTime lastRefresh;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${app.jwt.revocation.expected-entries:100000}") int expectedEntries,
+                                  @Value("${app.jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new TokenBloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        return revokedTokenRepository.existsByJtiAndExpiresAtAfter(jti, LocalDateTime.now());
+    }
+
+    @Transactional
+    public void revoke(Claims claims) {
+        if (claims.getId() == null) {
+            throw new RuntimeException("Token cannot be revoked");
+        }
+
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setJti(claims.getId());
+        revokedToken.setUserId(Long.parseLong(claims.getSubject()));
+        revokedToken.setExpiresAt(LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()));
+        revokedTokenRepository.save(revokedToken);
+
+        filter.put(claims.getId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.jwt.revocation.purge-cron:0 0 * * * *}")
+    @Transactional
+    public void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = revokedTokenRepository.deleteExpired(now);
+
+        TokenBloomFilter rebuilt = new TokenBloomFilter(expectedEntries, falsePositiveRate);
+        List<String> active = revokedTokenRepository.findActiveJtis(now);
+        active.forEach(rebuilt::put);
+
+        filter = rebuilt;
+        revokedTokenRepository.findJtisRevokedAfter(now.minusSeconds(REFRESH_OVERLAP_SECONDS), now)
+                .forEach(rebuilt::put);
+        lastRefresh = now;
+        logger.info("Revocation filter rebuilt with {} tokens, {} expired entries purged", active.size(), purged);
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.refresh-ms:10000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        if (lastRefresh == null) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        TokenBloomFilter current = filter;
+        revokedTokenRepository.findJtisRevokedAfter(lastRefresh.minusSeconds(REFRESH_OVERLAP_SECONDS), now)
+                .forEach(current::put);
+        lastRefresh = now;
+    }
+}
@@ -0,0 +1,338 @@
+package nl.pkock.brewhub_backend.auth.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import nl.pkock.brewhub_backend.auth.dto.ProvisioningResult;
+import nl.pkock.brewhub_backend.auth.dto.ProvisioningResult.Status;
+import nl.pkock.brewhub_backend.auth.dto.SignUpRequest;
+import nl.pkock.brewhub_backend.auth.models.UserRole;
+import nl.pkock.brewhub_backend.auth.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Creates accounts in bulk for moderators. Rows are handled in chunks: one set query finds
+ * existing emails, passwords are hashed in parallel on a bounded pool and the chunk is
+ * inserted with JDBC batches in its own transaction. No tokens are issued.
+ */
+@Slf4j
+@Service
+public class UserProvisioningService {
+
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users (email, password, first_name, last_name, location, role_mask) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ROLE_SQL = "INSERT INTO users_roles (user_id, roles) VALUES (?, ?)";
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ThreadPoolExecutor hashExecutor;
+    private final int chunkSize;
+    private final Map<Status, Counter> resultCounters = new EnumMap<>(Status.class);
+
+    public UserProvisioningService(UserRepository userRepository,
+                                   PasswordEncoder passwordEncoder,
+                                   JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   ObjectMapper objectMapper,
+                                   Validator validator,
+                                   @Value("${app.auth.provisioning.chunk-size:500}") int chunkSize,
+                                   @Value("${app.auth.provisioning.hash-threads:0}") int hashThreads,
+                                   MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+
+        int poolSize = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.hashExecutor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(chunkSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "provisioning-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        for (Status status : Status.values()) {
+            resultCounters.put(status, Counter.builder("brewhub.auth.provisioning.rows")
+                    .tag("status", status.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    public void provisionJsonLines(InputStream input, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        int rowNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            rowNumber++;
+            try {
+                chunk.add(new PendingRow(rowNumber, objectMapper.readValue(line, SignUpRequest.class), null));
+            } catch (IOException e) {
+                chunk.add(new PendingRow(rowNumber, null, "Malformed JSON record"));
+            }
+            if (chunk.size() == chunkSize) {
+                processChunk(chunk, output);
+                chunk.clear();
+            }
+        }
+        processChunk(chunk, output);
+    }
+
+    public void provisionCsv(InputStream input, OutputStream output) throws IOException {
+        try (CSVReader reader = new CSVReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String[] header = reader.readNext();
+            if (header == null) {
+                return;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                columns.put(header[i].trim().toLowerCase(), i);
+            }
+
+            List<PendingRow> chunk = new ArrayList<>(chunkSize);
+            int rowNumber = 0;
+            String[] fields;
+            while ((fields = reader.readNext()) != null) {
+                rowNumber++;
+                chunk.add(new PendingRow(rowNumber, toSignUpRequest(fields, columns), null));
+                if (chunk.size() == chunkSize) {
+                    processChunk(chunk, output);
+                    chunk.clear();
+                }
+            }
+            processChunk(chunk, output);
+        } catch (CsvValidationException e) {
+            throw new RuntimeException("Error processing CSV file: " + e.getMessage());
+        }
+    }
+
+    private SignUpRequest toSignUpRequest(String[] fields, Map<String, Integer> columns) {
+        SignUpRequest request = new SignUpRequest();
+        request.setFirstName(column(fields, columns, "firstname"));
+        request.setLastName(column(fields, columns, "lastname"));
+        request.setEmail(column(fields, columns, "email"));
+        request.setPassword(column(fields, columns, "password"));
+        request.setRole(column(fields, columns, "role"));
+        request.setLocation(column(fields, columns, "location"));
+        return request;
+    }
+
+    private String column(String[] fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.length) {
+            return null;
+        }
+        String value = fields[index].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private void processChunk(List<PendingRow> chunk, OutputStream output) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        ProvisioningResult[] results = new ProvisioningResult[chunk.size()];
+        List<Integer> candidates = new ArrayList<>(chunk.size());
+        Set<String> chunkEmails = new HashSet<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            PendingRow row = chunk.get(i);
+            String error = row.error() != null ? row.error() : validate(row.request());
+            if (error != null) {
+                String email = row.request() != null ? row.request().getEmail() : null;
+                results[i] = new ProvisioningResult(row.rowNumber(), email, Status.INVALID, null, error);
+            } else if (!chunkEmails.add(row.request().getEmail())) {
+                results[i] = duplicate(row);
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        Set<String> existing = chunkEmails.isEmpty()
+                ? Collections.emptySet()
+                : userRepository.findExistingEmails(chunkEmails);
+
+        List<Integer> toCreate = new ArrayList<>(candidates.size());
+        for (int index : candidates) {
+            if (existing.contains(chunk.get(index).request().getEmail())) {
+                results[index] = duplicate(chunk.get(index));
+            } else {
+                toCreate.add(index);
+            }
+        }
+
+        if (!toCreate.isEmpty()) {
+            createUsers(chunk, toCreate, results);
+        }
+
+        for (ProvisioningResult result : results) {
+            resultCounters.get(result.getStatus()).increment();
+            output.write(objectMapper.writeValueAsBytes(result));
+            output.write('\n');
+        }
+        output.flush();
+    }
+
+    private void createUsers(List<PendingRow> chunk, List<Integer> toCreate, ProvisioningResult[] results) {
+        try {
+            List<String> hashes = hashPasswords(chunk, toCreate);
+            List<Long> ids = transactionTemplate.execute(status -> insertUsers(chunk, toCreate, hashes));
+            for (int i = 0; i < toCreate.size(); i++) {
+                PendingRow row = chunk.get(toCreate.get(i));
+                results[toCreate.get(i)] = new ProvisioningResult(
+                        row.rowNumber(), row.request().getEmail(), Status.CREATED, ids.get(i), null);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Bulk provisioning chunk failed: {}", e.getMessage());
+            for (int index : toCreate) {
+                PendingRow row = chunk.get(index);
+                results[index] = new ProvisioningResult(
+                        row.rowNumber(), row.request().getEmail(), Status.FAILED, null,
+                        "Could not create account, please retry this row");
+            }
+        }
+    }
+
+    private List<String> hashPasswords(List<PendingRow> chunk, List<Integer> toCreate) {
+        List<Callable<String>> tasks = toCreate.stream()
+                .map(index -> (Callable<String>) () -> passwordEncoder.encode(chunk.get(index).request().getPassword()))
+                .collect(Collectors.toList());
+
+        List<String> hashes = new ArrayList<>(tasks.size());
+        try {
+            for (Future<String> future : hashExecutor.invokeAll(tasks)) {
+                hashes.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Password hashing was interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed: " + e.getCause().getMessage());
+        }
+        return hashes;
+    }
+
+    private List<Long> insertUsers(List<PendingRow> chunk, List<Integer> toCreate, List<String> hashes) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_USER_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        SignUpRequest request = chunk.get(toCreate.get(i)).request();
+                        ps.setString(1, request.getEmail());
+                        ps.setString(2, hashes.get(i));
+                        ps.setString(3, request.getFirstName());
+                        ps.setString(4, request.getLastName());
+                        ps.setString(5, request.getLocation());
+                        ps.setInt(6, UserRole.fromName(request.getRole()).mask());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return toCreate.size();
+                    }
+                },
+                keyHolder);
+
+        List<Long> ids = keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).longValue())
+                .collect(Collectors.toList());
+
+        jdbcTemplate.batchUpdate(INSERT_ROLE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, ids.get(i));
+                ps.setString(2, UserRole.fromName(chunk.get(toCreate.get(i)).request().getRole()).name());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+        return ids;
+    }
+
+    private String validate(SignUpRequest request) {
+        Set<ConstraintViolation<SignUpRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (UserRole.fromName(request.getRole()) == UserRole.RETAILER &&
+                (request.getLocation() == null || request.getLocation().trim().isEmpty())) {
+            return "Location is required for retailers";
+        }
+        return null;
+    }
+
+    private ProvisioningResult duplicate(PendingRow row) {
+        return new ProvisioningResult(row.rowNumber(), row.request().getEmail(), Status.DUPLICATE, null,
+                "Email is already taken");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashExecutor.shutdownNow();
+    }
+
+    private record PendingRow(int rowNumber, SignUpRequest request, String error) {
+    }
+}
@@ -1,8 +1,15 @@
 package nl.pkock.brewhub_backend.community.exceptions;
 
+import nl.pkock.brewhub_backend.auth.exceptions.LoginUnavailableException;
+import nl.pkock.brewhub_backend.auth.exceptions.TooManyLoginAttemptsException;
+import nl.pkock.brewhub_backend.inventory.exceptions.ImportQueueFullException;
+import nl.pkock.brewhub_backend.inventory.exceptions.InvalidCursorException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -11,4 +18,36 @@ public class GlobalExceptionHandler {
     public ResponseEntity<String> handleDuplicateReport(DuplicateReportException e) {
         return ResponseEntity.badRequest().body(e.getMessage());
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(TooManyLoginAttemptsException.class)
+    public ResponseEntity<String> handleTooManyLoginAttempts(TooManyLoginAttemptsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(LoginUnavailableException.class)
+    public ResponseEntity<String> handleLoginUnavailable(LoginUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(ImportQueueFullException.class)
+    public ResponseEntity<String> handleImportQueueFull(ImportQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<String> handleMaxUploadSizeExceeded(MaxUploadSizeExceededException e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body("Upload exceeds the limit of " + e.getMaxUploadSize() + " bytes");
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursor(InvalidCursorException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
@@ -49,7 +49,7 @@ public class AnswerService {
         answer.setAuthor(author);
         answer.setQuestion(question);
         answer.setActive(true);
-        answer.setVerifiedAnswer(author.getRoles().contains(UserRole.RETAILER));
+        answer.setVerifiedAnswer(author.hasRole(UserRole.RETAILER));
 
         Answer savedAnswer = answerRepository.save(answer);
         return mapToDTO(savedAnswer, userId);
@@ -126,7 +126,7 @@ public class AnswerService {
         dto.setContent(answer.getContent());
         dto.setAuthorName(answer.getAuthor().getFirstName() + " " + answer.getAuthor().getLastName());
         dto.setAuthorId(answer.getAuthor().getId());
-        dto.setRetailerResponse(answer.getAuthor().getRoles().contains(UserRole.RETAILER));
+        dto.setRetailerResponse(answer.getAuthor().hasRole(UserRole.RETAILER));
         dto.setAccepted(answer.isAccepted());
         dto.setVerified(answer.isVerifiedAnswer());
         dto.setVoteCount(calculateVoteCount(answer.getVotes()));
@@ -153,4 +153,4 @@ public class AnswerService {
         return (int) (votes.stream().filter(v -> v.getType() == VoteType.UPVOTE).count() -
                 votes.stream().filter(v -> v.getType() == VoteType.DOWNVOTE).count());
     }
-}
\ No newline at end of file
+}
@@ -117,7 +117,7 @@ public class QuestionService {
         dto.setContent(question.getContent());
         dto.setAuthorName(question.getAuthor().getFirstName() + " " + question.getAuthor().getLastName());
         dto.setAuthorId(question.getAuthor().getId());
-        dto.setRetailerResponse(question.getAuthor().getRoles().contains(UserRole.RETAILER));
+        dto.setRetailerResponse(question.getAuthor().hasRole(UserRole.RETAILER));
         dto.setVoteCount(calculateVoteCount(question.getVotes()));
         dto.setAnswerCount(question.getAnswers().size());
         dto.setCreatedAt(question.getCreatedAt());
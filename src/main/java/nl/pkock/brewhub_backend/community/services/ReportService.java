@@ -73,8 +73,8 @@ public class ReportService {
     }
 
     private boolean isModeratorUser(Long userId) {
-        return userRepository.findById(userId)
-                .map(user -> user.getRoles().contains(UserRole.MODERATOR))
+        return userRepository.findRoleMaskById(userId)
+                .map(UserRole.MODERATOR::isIn)
                 .orElse(false);
     }
 
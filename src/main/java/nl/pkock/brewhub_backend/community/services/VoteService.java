@@ -2,7 +2,7 @@ package nl.pkock.brewhub_backend.community.services;
 
 import lombok.RequiredArgsConstructor;
 import nl.pkock.brewhub_backend.auth.models.User;
-import nl.pkock.brewhub_backend.auth.repository.UserRepository;
+import nl.pkock.brewhub_backend.auth.security.CurrentUser;
 import nl.pkock.brewhub_backend.community.dto.VoteRequest;
 import nl.pkock.brewhub_backend.community.models.Answer;
 import nl.pkock.brewhub_backend.community.models.Question;
@@ -19,12 +19,11 @@ public class VoteService {
     private final VoteRepository voteRepository;
     private final QuestionRepository questionRepository;
     private final AnswerRepository answerRepository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
 
     @Transactional
     public void voteOnQuestion(VoteRequest request, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = currentUser.reference(userId);
 
         Question question = questionRepository.findById(request.getQuestionId())
                 .orElseThrow(() -> new RuntimeException("Question not found"));
@@ -53,8 +52,7 @@ public class VoteService {
 
     @Transactional
     public void voteOnAnswer(VoteRequest request, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = currentUser.reference(userId);
 
         Answer answer = answerRepository.findById(request.getAnswerId())
                 .orElseThrow(() -> new RuntimeException("Answer not found"));
@@ -80,4 +78,4 @@ public class VoteService {
             voteRepository.save(vote);
         }
     }
-}
\ No newline at end of file
+}
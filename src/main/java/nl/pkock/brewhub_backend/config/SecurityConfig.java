@@ -3,6 +3,7 @@ package nl.pkock.brewhub_backend.config;
 import nl.pkock.brewhub_backend.auth.security.CustomUserDetailsService;
 import nl.pkock.brewhub_backend.auth.security.JwtAuthenticationFilter;
 import nl.pkock.brewhub_backend.auth.security.JwtTokenProvider;
+import nl.pkock.brewhub_backend.auth.services.TokenRevocationService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -31,10 +32,14 @@ public class SecurityConfig {
 
     private final CustomUserDetailsService customUserDetailsService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationService tokenRevocationService;
 
-    public SecurityConfig(CustomUserDetailsService customUserDetailsService, JwtTokenProvider jwtTokenProvider) {
+    public SecurityConfig(CustomUserDetailsService customUserDetailsService,
+                          JwtTokenProvider jwtTokenProvider,
+                          TokenRevocationService tokenRevocationService) {
         this.customUserDetailsService = customUserDetailsService;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Bean
@@ -56,6 +61,11 @@ public class SecurityConfig {
                         // Community endpoints require authentication
                         .requestMatchers("/api/community/**").authenticated()
                         .requestMatchers("/api/community/moderate/**").hasRole("MODERATOR")
+                        .requestMatchers("/api/moderator/**").hasRole("MODERATOR")
+
+                        // Operational endpoints
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("MODERATOR")
 
                         // All other endpoints require authentication by default
                         .anyRequest().authenticated()
@@ -68,7 +78,7 @@ public class SecurityConfig {
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtTokenProvider, customUserDetailsService);
+        return new JwtAuthenticationFilter(jwtTokenProvider, customUserDetailsService, tokenRevocationService);
     }
 
     @Bean
@@ -0,0 +1,42 @@
+package nl.pkock.brewhub_backend.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+
+import java.util.Set;
+
+/**
+ * The servlet container accepts multipart requests up to {@code spring.servlet.multipart.*},
+ * which is sized for the asynchronous import endpoint. Every other endpoint is held to
+ * {@code app.upload.max-request-size}, checked against Content-Length before the body is read.
+ */
+@Component("multipartResolver")
+public class UploadSizeMultipartResolver extends StandardServletMultipartResolver {
+
+    private static final Set<String> LARGE_UPLOAD_PATHS = Set.of("/api/retailer/inventory/import/jobs");
+
+    private final long maxRequestSize;
+
+    public UploadSizeMultipartResolver(@Value("${app.upload.max-request-size:10MB}") DataSize maxRequestSize) {
+        this.maxRequestSize = maxRequestSize.toBytes();
+    }
+
+    @Override
+    public MultipartHttpServletRequest resolveMultipart(HttpServletRequest request) throws MultipartException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!LARGE_UPLOAD_PATHS.contains(path)) {
+            long length = request.getContentLengthLong();
+            // Without a Content-Length the size is only known after spooling the whole body
+            if (length < 0 || length > maxRequestSize) {
+                throw new MaxUploadSizeExceededException(maxRequestSize);
+            }
+        }
+        return super.resolveMultipart(request);
+    }
+}
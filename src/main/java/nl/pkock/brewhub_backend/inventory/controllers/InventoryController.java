@@ -3,19 +3,32 @@ package nl.pkock.brewhub_backend.inventory.controllers;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import nl.pkock.brewhub_backend.inventory.dto.*;
+import nl.pkock.brewhub_backend.inventory.models.ImportMode;
 import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+import nl.pkock.brewhub_backend.inventory.models.IngredientSort;
 import nl.pkock.brewhub_backend.auth.security.UserPrincipal;
+import nl.pkock.brewhub_backend.inventory.services.BulkInventoryService;
+import nl.pkock.brewhub_backend.inventory.services.ImportJobService;
 import nl.pkock.brewhub_backend.inventory.services.InventoryService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/retailer/inventory")
@@ -23,6 +36,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class InventoryController {
     private final InventoryService inventoryService;
+    private final ImportJobService importJobService;
+    private final BulkInventoryService bulkInventoryService;
 
     private Long getRetailerId(Authentication authentication) {
         return ((UserPrincipal) authentication.getPrincipal()).getId();
@@ -36,11 +51,31 @@ public class InventoryController {
         return ResponseEntity.ok(inventoryService.getAllIngredients(getRetailerId(authentication), search, category));
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<IngredientPageDTO> getIngredientPage(
+            Authentication authentication,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) IngredientCategory category,
+            @RequestParam(defaultValue = "NAME") IngredientSort sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "25") int size) {
+        return ResponseEntity.ok(inventoryService.getIngredientPage(
+                getRetailerId(authentication), search, category, sort, direction.isDescending(), cursor, size));
+    }
+
     @GetMapping("/low-stock")
     public ResponseEntity<List<IngredientDTO>> getLowStockIngredients(Authentication authentication) {
         return ResponseEntity.ok(inventoryService.getLowStockIngredients(getRetailerId(authentication)));
     }
 
+    @GetMapping("/expiring")
+    public ResponseEntity<List<IngredientDTO>> getExpiringIngredients(
+            Authentication authentication,
+            @RequestParam(defaultValue = "7") int days) {
+        return ResponseEntity.ok(inventoryService.getExpiringIngredients(getRetailerId(authentication), days));
+    }
+
     @PostMapping
     public ResponseEntity<IngredientDTO> createIngredient(
             Authentication authentication,
@@ -48,6 +83,13 @@ public class InventoryController {
         return ResponseEntity.ok(inventoryService.createIngredient(getRetailerId(authentication), request));
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkInventoryUpdateResponse> bulkUpdate(
+            Authentication authentication,
+            @Valid @RequestBody BulkInventoryUpdateRequest request) {
+        return ResponseEntity.ok(bulkInventoryService.apply(getRetailerId(authentication), request));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<IngredientDTO> updateIngredient(
             Authentication authentication,
@@ -65,17 +107,34 @@ public class InventoryController {
     }
 
     @GetMapping("/export")
-    public ResponseEntity<String> exportInventory(Authentication authentication) {
-        String csvContent = inventoryService.exportInventory(getRetailerId(authentication));
+    public ResponseEntity<StreamingResponseBody> exportInventory(
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Long retailerId = getRetailerId(authentication);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
 
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        headers.setContentType(MediaType.parseMediaType("text/csv;charset=UTF-8"));
         headers.set(HttpHeaders.CONTENT_DISPOSITION,
                 "attachment; filename=inventory_" + LocalDate.now() + ".csv");
+        headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 8192);
+                inventoryService.exportInventory(retailerId, gzipStream);
+                gzipStream.finish();
+            } else {
+                inventoryService.exportInventory(retailerId, outputStream);
+            }
+        };
 
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(csvContent);
+                .body(body);
     }
 
     @GetMapping("/deleted")
@@ -86,6 +145,19 @@ public class InventoryController {
         return ResponseEntity.ok(inventoryService.getDeletedIngredients(getRetailerId(authentication), search, category));
     }
 
+    @GetMapping("/deleted/page")
+    public ResponseEntity<IngredientPageDTO> getDeletedIngredientPage(
+            Authentication authentication,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) IngredientCategory category,
+            @RequestParam(defaultValue = "NAME") IngredientSort sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "25") int size) {
+        return ResponseEntity.ok(inventoryService.getDeletedIngredientPage(
+                getRetailerId(authentication), search, category, sort, direction.isDescending(), cursor, size));
+    }
+
     @PutMapping("/{id}/restore")
     public ResponseEntity<IngredientDTO> restoreIngredient(
             Authentication authentication,
@@ -93,10 +165,67 @@ public class InventoryController {
         return ResponseEntity.ok(inventoryService.restoreIngredient(getRetailerId(authentication), id));
     }
 
+    @PutMapping("/{id}/high-demand")
+    public ResponseEntity<IngredientDTO> setHighDemand(
+            Authentication authentication,
+            @PathVariable Long id,
+            @Valid @RequestBody HighDemandRequest request) {
+        return ResponseEntity.ok(inventoryService.setHighDemand(getRetailerId(authentication), id, request.getShards()));
+    }
+
+    @GetMapping("/{id}/movements")
+    public ResponseEntity<List<StockMovementDTO>> getStockMovements(
+            Authentication authentication,
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(inventoryService.getStockMovements(getRetailerId(authentication), id, limit));
+    }
+
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<StockLevelDTO> getStockLevel(
+            Authentication authentication,
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(inventoryService.getStockLevel(getRetailerId(authentication), id, at));
+    }
+
     @PostMapping("/import")
     public ResponseEntity<?> importInventory(
             Authentication authentication,
-            @RequestParam("file") MultipartFile file) {
-        return ResponseEntity.ok(inventoryService.importInventory(getRetailerId(authentication), file));
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "APPEND") ImportMode mode) {
+        return ResponseEntity.ok(inventoryService.importInventory(getRetailerId(authentication), file, mode));
+    }
+
+    @PostMapping("/import/jobs")
+    public ResponseEntity<ImportJobDTO> submitImportJob(
+            Authentication authentication,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "APPEND") ImportMode mode) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(importJobService.submit(getRetailerId(authentication), file, mode));
+    }
+
+    @GetMapping("/import/jobs/{jobId}")
+    public ResponseEntity<ImportJobDTO> getImportJob(
+            Authentication authentication,
+            @PathVariable String jobId) {
+        return ResponseEntity.ok(importJobService.getJob(getRetailerId(authentication), jobId));
+    }
+
+    @GetMapping("/import/jobs/{jobId}/errors")
+    public ResponseEntity<Resource> getImportJobErrors(
+            Authentication authentication,
+            @PathVariable String jobId) {
+        Path errorReport = importJobService.getErrorReport(getRetailerId(authentication), jobId);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv;charset=UTF-8"));
+        headers.set(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=import_errors_" + jobId + ".csv");
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(new FileSystemResource(errorReport));
     }
 }
\ No newline at end of file
@@ -2,11 +2,20 @@ package nl.pkock.brewhub_backend.inventory.controllers;
 
 import lombok.RequiredArgsConstructor;
 import nl.pkock.brewhub_backend.inventory.dto.RetailerDTO;
-import nl.pkock.brewhub_backend.inventory.dto.IngredientDTO;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientPageDTO;
+import nl.pkock.brewhub_backend.inventory.dto.PriceOfferDTO;
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+import nl.pkock.brewhub_backend.inventory.models.IngredientSort;
 import nl.pkock.brewhub_backend.inventory.services.PublicService;
+import nl.pkock.brewhub_backend.inventory.services.RetailerCatalogCache;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -21,7 +30,35 @@ public class PublicController {
     }
 
     @GetMapping("/retailers/{retailerId}/ingredients")
-    public ResponseEntity<List<IngredientDTO>> getRetailerIngredients(@PathVariable Long retailerId) {
-        return ResponseEntity.ok(publicService.getRetailerIngredients(retailerId));
+    public ResponseEntity<byte[]> getRetailerIngredients(@PathVariable Long retailerId, WebRequest webRequest) {
+        RetailerCatalogCache.Catalog catalog = publicService.getRetailerCatalog(retailerId);
+        if (webRequest.checkNotModified(catalog.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(catalog.etag())
+                .body(catalog.json());
     }
-}
\ No newline at end of file
+
+    @GetMapping("/retailers/{retailerId}/ingredients/page")
+    public ResponseEntity<IngredientPageDTO> getRetailerIngredientPage(
+            @PathVariable Long retailerId,
+            @RequestParam(defaultValue = "NAME") IngredientSort sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "25") int size) {
+        return ResponseEntity.ok(publicService.getRetailerIngredientPage(
+                retailerId, sort, direction.isDescending(), cursor, size));
+    }
+
+    @GetMapping("/ingredients/compare")
+    public ResponseEntity<List<PriceOfferDTO>> comparePrices(
+            @RequestParam String name,
+            @RequestParam(required = false) IngredientCategory category,
+            @RequestParam(defaultValue = "0.01") BigDecimal minQuantity,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(publicService.comparePrices(name, category, minQuantity, limit));
+    }
+}
@@ -0,0 +1,16 @@
+package nl.pkock.brewhub_backend.inventory.dto;
+
+import jakarta.validation.Valid;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BulkInventoryUpdateRequest {
+    // Validated per item so one bad patch does not reject the others
+    private List<IngredientPatch> patches = new ArrayList<>();
+
+    @Valid
+    private List<PriceRule> rules = new ArrayList<>();
+}
@@ -0,0 +1,18 @@
+package nl.pkock.brewhub_backend.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BulkInventoryUpdateResponse {
+    private List<RuleResult> rules;
+    private List<IngredientPatchResult> patches;
+
+    public record RuleResult(IngredientCategory category, BigDecimal percent, int rowsUpdated) {
+    }
+}
@@ -0,0 +1,11 @@
+package nl.pkock.brewhub_backend.inventory.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class HighDemandRequest {
+    // Number of stock shards orders claim from; 0 turns high-demand mode off
+    @NotNull
+    private Integer shards;
+}
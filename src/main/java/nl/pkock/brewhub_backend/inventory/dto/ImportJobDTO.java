@@ -0,0 +1,28 @@
+package nl.pkock.brewhub_backend.inventory.dto;
+
+import lombok.Data;
+import nl.pkock.brewhub_backend.inventory.models.ImportJobStatus;
+import nl.pkock.brewhub_backend.inventory.models.ImportMode;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ImportJobDTO {
+    private String id;
+    private String fileName;
+    private ImportJobStatus status;
+    private ImportMode importMode;
+    private long rowsProcessed;
+    private long rowsImported;
+    private long rowsUpdated;
+    private long rowsUnchanged;
+    private long rowsFailed;
+    private double percentComplete;
+    private long rowsPerSecond;
+    private Long etaSeconds;
+    private boolean errorReportAvailable;
+    private String message;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,39 @@
+package nl.pkock.brewhub_backend.inventory.dto;
+
+import nl.pkock.brewhub_backend.inventory.exceptions.InvalidCursorException;
+import nl.pkock.brewhub_backend.inventory.models.IngredientSort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row on a page: its sort value and id. Sent to clients as an opaque
+ * base64url token that also records the sort it was created for.
+ */
+public record IngredientCursor(IngredientSort sort, boolean descending, Object value, long id) {
+
+    public String encode() {
+        String raw = sort.name() + '|' + (descending ? 'D' : 'A') + '|' + id + '|' + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static IngredientCursor decode(String token, IngredientSort sort, boolean descending) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", 4);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+        if (parts.length != 4) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+        if (!parts[0].equals(sort.name()) || !parts[1].equals(descending ? "D" : "A")) {
+            throw new InvalidCursorException("Cursor was created for a different sort order");
+        }
+        try {
+            return new IngredientCursor(sort, descending, sort.parseValue(parts[3]), Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+}
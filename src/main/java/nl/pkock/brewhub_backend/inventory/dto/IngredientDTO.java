@@ -20,4 +20,5 @@ public class IngredientDTO {
     private LocalDate expiryDate;
     private BigDecimal lowStockThreshold;
     private boolean isLowStock;
+    private boolean expired;
 }
\ No newline at end of file
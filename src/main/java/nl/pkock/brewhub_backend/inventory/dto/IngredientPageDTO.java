@@ -0,0 +1,16 @@
+package nl.pkock.brewhub_backend.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IngredientPageDTO {
+    private List<IngredientDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,27 @@
+package nl.pkock.brewhub_backend.inventory.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+public class IngredientPatch {
+    @NotNull
+    private Long id;
+
+    // Zero is allowed so stock takes can record an empty shelf
+    @PositiveOrZero
+    private BigDecimal quantity;
+
+    @Positive
+    private BigDecimal price;
+
+    private LocalDate expiryDate;
+
+    @Positive
+    private BigDecimal lowStockThreshold;
+}
@@ -0,0 +1,21 @@
+package nl.pkock.brewhub_backend.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IngredientPatchResult {
+    private Long id;
+    private Status status;
+    private String message;
+
+    public enum Status {
+        UPDATED,
+        NOT_FOUND,
+        DUPLICATE,
+        INVALID
+    }
+}
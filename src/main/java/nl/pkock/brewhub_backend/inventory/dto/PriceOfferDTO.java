@@ -0,0 +1,20 @@
+package nl.pkock.brewhub_backend.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceOfferDTO {
+    private Long retailerId;
+    private Long ingredientId;
+    private IngredientCategory category;
+    private BigDecimal price;
+    private BigDecimal quantity;
+    private String unit;
+}
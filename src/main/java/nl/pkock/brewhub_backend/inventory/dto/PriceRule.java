@@ -0,0 +1,22 @@
+package nl.pkock.brewhub_backend.inventory.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+
+import java.math.BigDecimal;
+
+/**
+ * Changes the price of every active ingredient, or of one category, by a percentage.
+ */
+@Data
+public class PriceRule {
+    private IngredientCategory category;
+
+    @NotNull
+    @DecimalMin(value = "-100", inclusive = false)
+    @DecimalMax("1000")
+    private BigDecimal percent;
+}
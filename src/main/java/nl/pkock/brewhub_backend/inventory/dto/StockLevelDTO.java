@@ -0,0 +1,17 @@
+package nl.pkock.brewhub_backend.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockLevelDTO {
+    private Long ingredientId;
+    private BigDecimal quantity;
+    private LocalDateTime at;
+}
@@ -0,0 +1,22 @@
+package nl.pkock.brewhub_backend.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import nl.pkock.brewhub_backend.inventory.models.StockMovementReason;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StockMovementDTO {
+    private Long id;
+    private BigDecimal delta;
+    private StockMovementReason reason;
+    private Long orderId;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,13 @@
+package nl.pkock.brewhub_backend.inventory.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class ImportQueueFullException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ImportQueueFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
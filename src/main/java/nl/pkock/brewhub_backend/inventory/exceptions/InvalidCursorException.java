@@ -0,0 +1,7 @@
+package nl.pkock.brewhub_backend.inventory.exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
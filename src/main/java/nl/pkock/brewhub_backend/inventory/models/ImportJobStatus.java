@@ -0,0 +1,8 @@
+package nl.pkock.brewhub_backend.inventory.models;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package nl.pkock.brewhub_backend.inventory.models;
+
+public enum ImportMode {
+    APPEND,
+    MERGE
+}
@@ -1,14 +1,25 @@
 package nl.pkock.brewhub_backend.inventory.models;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
 import nl.pkock.brewhub_backend.auth.models.User;
+import nl.pkock.brewhub_backend.inventory.services.LowStockListener;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Formula;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "ingredients", schema = "public")
+@Table(name = "ingredients", schema = "public", indexes = {
+        @Index(name = "idx_ingredients_page_name", columnList = "retailer_id, active, name, id"),
+        @Index(name = "idx_ingredients_page_price", columnList = "retailer_id, active, price, id"),
+        @Index(name = "idx_ingredients_page_quantity", columnList = "retailer_id, active, quantity, id"),
+        @Index(name = "idx_ingredients_page_expiry", columnList = "retailer_id, active, expiry_date, id")
+})
+@EntityListeners(LowStockListener.class)
 @Data
 public class Ingredient {
     @Id
@@ -22,6 +33,7 @@ public class Ingredient {
     @Column(name = "category", nullable = false)
     private IngredientCategory category;
 
+    // For high-demand ingredients this is only the unsharded pool; see getTotalQuantity()
     @Column(name = "quantity", nullable = false)
     private BigDecimal quantity;
 
@@ -40,7 +52,68 @@ public class Ingredient {
     @Column(name = "active", nullable = false)
     private Boolean active = true;
 
+    // Maintained by setQuantity/setLowStockThreshold so the low-stock view is an index lookup
+    @Column(name = "low_stock", nullable = false)
+    @ColumnDefault("false")
+    @Setter(AccessLevel.NONE)
+    private Boolean lowStock = false;
+
+    // Set when the expiry date has passed; maintained by setExpiryDate and the nightly ExpirySweeper
+    @Column(name = "expired", nullable = false)
+    @ColumnDefault("false")
+    @Setter(AccessLevel.NONE)
+    private Boolean expired = false;
+
+    // Number of stock shards orders claim from; 0 means orders decrement quantity directly
+    @Column(name = "shard_count", nullable = false)
+    @ColumnDefault("0")
+    @Setter(AccessLevel.NONE)
+    private Integer shardCount = 0;
+
+    @Formula("(CASE WHEN shard_count > 0 THEN (SELECT COALESCE(SUM(s.quantity), 0) " +
+            "FROM ingredient_stock_shards s WHERE s.ingredient_id = id) ELSE 0 END)")
+    @Setter(AccessLevel.NONE)
+    private BigDecimal shardedQuantity = BigDecimal.ZERO;
+
+    // low_stock as last read from or written to the database, used to detect crossings
+    @Transient
+    @Setter(AccessLevel.NONE)
+    private Boolean persistedLowStock;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "retailer_id", nullable = false)
     private User retailer;
-}
\ No newline at end of file
+
+    /**
+     * Sets the total stock. Shards no longer count towards it, so callers changing a
+     * high-demand ingredient must also drain its shards with {@code StockShards.drain}.
+     */
+    public void setQuantity(BigDecimal quantity) {
+        this.quantity = quantity;
+        this.shardedQuantity = BigDecimal.ZERO;
+        updateLowStock();
+    }
+
+    public void setLowStockThreshold(BigDecimal lowStockThreshold) {
+        this.lowStockThreshold = lowStockThreshold;
+        updateLowStock();
+    }
+
+    public void setExpiryDate(LocalDate expiryDate) {
+        this.expiryDate = expiryDate;
+        this.expired = expiryDate != null && expiryDate.isBefore(LocalDate.now());
+    }
+
+    public BigDecimal getTotalQuantity() {
+        return quantity != null && shardedQuantity != null ? quantity.add(shardedQuantity) : quantity;
+    }
+
+    private void updateLowStock() {
+        BigDecimal total = getTotalQuantity();
+        this.lowStock = total != null && lowStockThreshold != null && total.compareTo(lowStockThreshold) <= 0;
+    }
+
+    public void markLowStockPersisted() {
+        this.persistedLowStock = lowStock;
+    }
+}
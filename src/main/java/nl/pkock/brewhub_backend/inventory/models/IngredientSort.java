@@ -0,0 +1,29 @@
+package nl.pkock.brewhub_backend.inventory.models;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public enum IngredientSort {
+    NAME("name"),
+    PRICE("price"),
+    QUANTITY("quantity"),
+    EXPIRY_DATE("expiryDate");
+
+    private final String property;
+
+    IngredientSort(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Object parseValue(String value) {
+        return switch (this) {
+            case NAME -> value;
+            case PRICE, QUANTITY -> new BigDecimal(value);
+            case EXPIRY_DATE -> LocalDate.parse(value);
+        };
+    }
+}
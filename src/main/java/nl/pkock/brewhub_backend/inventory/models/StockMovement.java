@@ -0,0 +1,45 @@
+package nl.pkock.brewhub_backend.inventory.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One change to an ingredient's stock. Rows are inserted by {@code StockLedger}; the only
+ * later write is {@code foldedAt}, set once by the snapshot run that folds the row.
+ */
+@Entity
+@Table(name = "stock_movements", indexes = {
+        @Index(name = "idx_stock_movements_ingredient", columnList = "ingredient_id, created_at"),
+        @Index(name = "idx_stock_movements_folded", columnList = "folded_at, created_at")
+})
+@Data
+public class StockMovement {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "ingredient_id", nullable = false)
+    private Long ingredientId;
+
+    @Column(name = "retailer_id", nullable = false)
+    private Long retailerId;
+
+    @Column(name = "delta", nullable = false)
+    private BigDecimal delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reason", nullable = false)
+    private StockMovementReason reason;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "folded_at")
+    private LocalDateTime foldedAt;
+}
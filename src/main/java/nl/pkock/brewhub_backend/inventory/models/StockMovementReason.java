@@ -0,0 +1,8 @@
+package nl.pkock.brewhub_backend.inventory.models;
+
+public enum StockMovementReason {
+    ORDER_RESERVE,
+    ORDER_RETURN,
+    ADJUSTMENT,
+    IMPORT
+}
@@ -0,0 +1,30 @@
+package nl.pkock.brewhub_backend.inventory.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Part of a high-demand ingredient's stock. Orders claim from a random shard so they do not
+ * all wait on the ingredient row; see {@code StockShards}.
+ */
+@Entity
+@Table(name = "ingredient_stock_shards", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_ingredient_stock_shards", columnNames = {"ingredient_id", "shard"})
+})
+@Data
+public class StockShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "ingredient_id", nullable = false)
+    private Long ingredientId;
+
+    @Column(name = "shard", nullable = false)
+    private Integer shard;
+
+    @Column(name = "quantity", nullable = false)
+    private BigDecimal quantity;
+}
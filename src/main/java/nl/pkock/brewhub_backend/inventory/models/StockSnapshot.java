@@ -0,0 +1,35 @@
+package nl.pkock.brewhub_backend.inventory.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An ingredient's stock as of {@code takenAt}: the previous snapshot plus the movements this
+ * snapshot folded, i.e. every movement dated up to {@code takenAt} that had committed by then
+ * and was not folded before. Movements dated earlier that commit later are folded next time.
+ */
+@Entity
+@Table(name = "stock_snapshots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_snapshots_ingredient_taken", columnNames = {"ingredient_id", "taken_at"})
+})
+@Data
+public class StockSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "ingredient_id", nullable = false)
+    private Long ingredientId;
+
+    @Column(name = "retailer_id", nullable = false)
+    private Long retailerId;
+
+    @Column(name = "quantity", nullable = false)
+    private BigDecimal quantity;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
@@ -0,0 +1,19 @@
+package nl.pkock.brewhub_backend.inventory.repository;
+
+import nl.pkock.brewhub_backend.inventory.dto.IngredientCursor;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientDTO;
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+import nl.pkock.brewhub_backend.inventory.models.IngredientSort;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface IngredientKeysetRepository {
+    /**
+     * Returns up to {@code limit} rows sorted by {@code sort} then id, starting after
+     * {@code after} when given, optionally restricted to {@code ids}. Rows are projected
+     * straight into DTOs.
+     */
+    List<IngredientDTO> findPage(Long retailerId, boolean active, Collection<Long> ids, IngredientCategory category,
+                                 IngredientSort sort, boolean descending, IngredientCursor after, int limit);
+}
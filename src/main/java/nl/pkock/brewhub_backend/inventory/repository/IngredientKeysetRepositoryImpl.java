@@ -0,0 +1,58 @@
+package nl.pkock.brewhub_backend.inventory.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientCursor;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientDTO;
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+import nl.pkock.brewhub_backend.inventory.models.IngredientSort;
+
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+class IngredientKeysetRepositoryImpl implements IngredientKeysetRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    public List<IngredientDTO> findPage(Long retailerId, boolean active, Collection<Long> ids, IngredientCategory category,
+                                        IngredientSort sort, boolean descending, IngredientCursor after, int limit) {
+        String column = "i." + sort.getProperty();
+        String comparison = descending ? "<" : ">";
+        String direction = descending ? " DESC" : " ASC";
+
+        StringBuilder jpql = new StringBuilder(
+                "SELECT new nl.pkock.brewhub_backend.inventory.dto.IngredientDTO(" +
+                        "i.id, i.name, i.category, i.quantity, i.unit, i.price, i.expiryDate, i.lowStockThreshold, " +
+                        "i.lowStock, i.expired) " +
+                        "FROM Ingredient i WHERE i.retailer.id = :retailerId AND i.active = :active");
+        if (ids != null) {
+            jpql.append(" AND i.id IN :ids");
+        }
+        if (category != null) {
+            jpql.append(" AND i.category = :category");
+        }
+        if (after != null) {
+            jpql.append(" AND (").append(column).append(' ').append(comparison).append(" :afterValue OR (")
+                    .append(column).append(" = :afterValue AND i.id ").append(comparison).append(" :afterId))");
+        }
+        jpql.append(" ORDER BY ").append(column).append(direction).append(", i.id").append(direction);
+
+        TypedQuery<IngredientDTO> query = entityManager.createQuery(jpql.toString(), IngredientDTO.class)
+                .setParameter("retailerId", retailerId)
+                .setParameter("active", active)
+                .setMaxResults(limit);
+        if (ids != null) {
+            query.setParameter("ids", ids);
+        }
+        if (category != null) {
+            query.setParameter("category", category);
+        }
+        if (after != null) {
+            query.setParameter("afterValue", after.value());
+            query.setParameter("afterId", after.id());
+        }
+        return query.getResultList();
+    }
+}
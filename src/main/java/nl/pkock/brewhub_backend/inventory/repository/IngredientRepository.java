@@ -3,31 +3,53 @@ package nl.pkock.brewhub_backend.inventory.repository;
 import nl.pkock.brewhub_backend.inventory.models.Ingredient;
 import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
+public interface IngredientRepository extends JpaRepository<Ingredient, Long>, IngredientKeysetRepository {
     List<Ingredient> findByRetailerIdAndActiveTrue(Long retailerId);
     List<Ingredient> findByRetailerIdAndActiveFalse(Long retailerId);
-
-    @Query("SELECT i FROM Ingredient i WHERE i.retailer.id = ?1 AND i.active = true AND " +
-            "(LOWER(i.name) LIKE LOWER(CONCAT('%', ?2, '%')) OR " +
-            "LOWER(i.category) LIKE LOWER(CONCAT('%', ?2, '%')))")
-    List<Ingredient> searchIngredients(Long retailerId, String searchTerm);
+    List<Ingredient> findByRetailerIdAndActiveAndIdIn(Long retailerId, boolean active, Collection<Long> ids);
+    List<Ingredient> findByRetailerIdAndIdIn(Long retailerId, Collection<Long> ids);
 
     // Update other methods to include active = true
     List<Ingredient> findByRetailerIdAndCategoryAndActiveTrue(Long retailerId, IngredientCategory category);
 
-    @Query("SELECT i FROM Ingredient i WHERE i.retailer.id = ?1 AND i.active = true AND i.quantity <= i.lowStockThreshold")
+    @Query("SELECT i FROM Ingredient i WHERE i.retailer.id = ?1 AND i.active = true AND i.lowStock = true")
     List<Ingredient> findLowStockIngredients(Long retailerId);
 
-    @Query("SELECT i FROM Ingredient i WHERE i.retailer.id = ?1 AND i.active = false AND " +
-            "(LOWER(i.name) LIKE LOWER(CONCAT('%', ?2, '%')) OR " +
-            "LOWER(i.category) LIKE LOWER(CONCAT('%', ?2, '%')))")
-    List<Ingredient> searchDeletedIngredients(Long retailerId, String searchTerm);
+    // Served by idx_ingredients_page_expiry (retailer_id, active, expiry_date, id)
+    @Query("SELECT i FROM Ingredient i WHERE i.retailer.id = ?1 AND i.active = true AND i.expiryDate <= ?2 " +
+            "ORDER BY i.expiryDate, i.id")
+    List<Ingredient> findExpiringIngredients(Long retailerId, LocalDate cutoff);
 
     List<Ingredient> findByRetailerIdAndCategoryAndActiveFalse(Long retailerId, IngredientCategory category);
+
+    // Write paths that flush the whole entity lock the row first, so they cannot write back stale stock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Ingredient i WHERE i.id = ?1")
+    Optional<Ingredient> findByIdForUpdate(Long ingredientId);
+
+    @Query("SELECT i FROM Ingredient i WHERE i.retailer.id = ?1 AND i.active = true ORDER BY i.id")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    Stream<Ingredient> streamActiveByRetailerId(Long retailerId);
 }
\ No newline at end of file
@@ -0,0 +1,212 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import nl.pkock.brewhub_backend.inventory.dto.BulkInventoryUpdateRequest;
+import nl.pkock.brewhub_backend.inventory.dto.BulkInventoryUpdateResponse;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientPatch;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientPatchResult;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientPatchResult.Status;
+import nl.pkock.brewhub_backend.inventory.dto.PriceRule;
+import nl.pkock.brewhub_backend.inventory.models.StockMovementReason;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies many inventory changes in one transaction. Price rules run first as one UPDATE
+ * each, then per-id patches: ownership of every patched id is checked (and the rows locked)
+ * with a single query, and the patches are written as one JDBC batch. Explicit patch values
+ * therefore win over rules for the same ingredient.
+ */
+@Service
+public class BulkInventoryService {
+
+    private static final String PRICE_RULE_SQL =
+            "UPDATE ingredients SET price = ROUND(price * :factor, 2) " +
+                    "WHERE retailer_id = :retailerId AND active = true";
+
+    private static final String LOCK_RETAILER_ROWS_SQL =
+            "SELECT id FROM ingredients WHERE retailer_id = :retailerId ORDER BY id FOR UPDATE";
+
+    private static final String LOCK_OWNED_SQL =
+            "SELECT id, quantity AS pool, " + StockShards.TOTAL_QUANTITY_SQL + " AS quantity, price, expiry_date, " +
+                    "low_stock_threshold, low_stock FROM ingredients " +
+                    "WHERE retailer_id = :retailerId AND id IN (:ids) ORDER BY id FOR UPDATE";
+
+    private static final String UPDATE_SQL =
+            "UPDATE ingredients SET quantity = :quantity, price = :price, expiry_date = :expiryDate, " +
+                    "low_stock_threshold = :lowStockThreshold, low_stock = :lowStock, expired = :expired " +
+                    "WHERE id = :id AND retailer_id = :retailerId";
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockLedger stockLedger;
+    private final StockShards stockShards;
+    private final int maxPatches;
+
+    public BulkInventoryService(NamedParameterJdbcTemplate jdbcTemplate,
+                                Validator validator,
+                                ApplicationEventPublisher eventPublisher,
+                                StockLedger stockLedger,
+                                StockShards stockShards,
+                                @Value("${app.inventory.bulk.max-patches:1000}") int maxPatches) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.stockLedger = stockLedger;
+        this.stockShards = stockShards;
+        this.maxPatches = maxPatches;
+    }
+
+    @Transactional
+    public BulkInventoryUpdateResponse apply(Long retailerId, BulkInventoryUpdateRequest request) {
+        if (request.getPatches().size() > maxPatches) {
+            throw new RuntimeException("At most " + maxPatches + " patches can be applied at once");
+        }
+
+        IngredientPatchResult[] results = new IngredientPatchResult[request.getPatches().size()];
+        Map<Long, Integer> positions = new LinkedHashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            IngredientPatch patch = request.getPatches().get(i);
+            String error = validate(patch);
+            if (error != null) {
+                results[i] = new IngredientPatchResult(patch.getId(), Status.INVALID, error);
+            } else if (positions.putIfAbsent(patch.getId(), i) != null) {
+                results[i] = new IngredientPatchResult(patch.getId(), Status.DUPLICATE,
+                        "Ingredient is patched more than once");
+            }
+        }
+
+        // Shards are locked before any ingredient row. Price rules update rows that were not
+        // named, so with rules every shard and then every row of the retailer is locked in id order
+        if (request.getRules().isEmpty()) {
+            stockShards.lock(retailerId, positions.keySet());
+        } else {
+            stockShards.lockRetailer(retailerId);
+            jdbcTemplate.query(LOCK_RETAILER_ROWS_SQL, new MapSqlParameterSource("retailerId", retailerId), rs -> {
+            });
+        }
+        List<BulkInventoryUpdateResponse.RuleResult> ruleResults = new ArrayList<>();
+        for (PriceRule rule : request.getRules()) {
+            ruleResults.add(applyRule(retailerId, rule));
+        }
+
+        Map<Long, CurrentRow> owned = lockOwned(retailerId, positions.keySet());
+        List<MapSqlParameterSource> updates = new ArrayList<>();
+        List<LowStockChangedEvent> crossings = new ArrayList<>();
+        List<StockLedger.Movement> movements = new ArrayList<>();
+        List<Long> quantityPatched = new ArrayList<>();
+        positions.forEach((id, position) -> {
+            CurrentRow current = owned.get(id);
+            if (current == null) {
+                results[position] = new IngredientPatchResult(id, Status.NOT_FOUND, "Ingredient not found");
+                return;
+            }
+            IngredientPatch patch = request.getPatches().get(position);
+            // Without a quantity the pool is written back as is; the shards of a high-demand
+            // ingredient are only drained when the patch replaces the total
+            BigDecimal quantity = patch.getQuantity() != null ? patch.getQuantity() : current.quantity();
+            BigDecimal threshold = patch.getLowStockThreshold() != null ? patch.getLowStockThreshold() : current.lowStockThreshold();
+            LocalDate expiryDate = patch.getExpiryDate() != null ? patch.getExpiryDate() : current.expiryDate();
+            boolean lowStock = quantity.compareTo(threshold) <= 0;
+
+            updates.add(new MapSqlParameterSource()
+                    .addValue("quantity", patch.getQuantity() != null ? quantity : current.pool())
+                    .addValue("price", patch.getPrice() != null ? patch.getPrice() : current.price())
+                    .addValue("expiryDate", Date.valueOf(expiryDate))
+                    .addValue("lowStockThreshold", threshold)
+                    .addValue("lowStock", lowStock)
+                    .addValue("expired", expiryDate.isBefore(LocalDate.now()))
+                    .addValue("id", id)
+                    .addValue("retailerId", retailerId));
+            if (patch.getQuantity() != null) {
+                quantityPatched.add(id);
+            }
+            movements.add(new StockLedger.Movement(id, retailerId, quantity.subtract(current.quantity()),
+                    StockMovementReason.ADJUSTMENT, null));
+            if (lowStock != current.lowStock()) {
+                crossings.add(new LowStockChangedEvent(retailerId, id, lowStock));
+            }
+            results[position] = new IngredientPatchResult(id, Status.UPDATED, null);
+        });
+
+        if (!updates.isEmpty()) {
+            stockShards.drain(quantityPatched);
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates.toArray(new MapSqlParameterSource[0]));
+            stockLedger.record(movements);
+        }
+        crossings.forEach(eventPublisher::publishEvent);
+        if (ruleResults.stream().anyMatch(result -> result.rowsUpdated() > 0)) {
+            eventPublisher.publishEvent(new IngredientsChangedEvent(retailerId));
+        } else if (!updates.isEmpty()) {
+            eventPublisher.publishEvent(new IngredientsChangedEvent(retailerId, Set.copyOf(owned.keySet())));
+        }
+
+        return new BulkInventoryUpdateResponse(ruleResults, List.of(results));
+    }
+
+    private BulkInventoryUpdateResponse.RuleResult applyRule(Long retailerId, PriceRule rule) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("factor", BigDecimal.ONE.add(rule.getPercent().divide(HUNDRED)))
+                .addValue("retailerId", retailerId);
+        String sql = PRICE_RULE_SQL;
+        if (rule.getCategory() != null) {
+            sql += " AND category = :category";
+            params.addValue("category", rule.getCategory().name());
+        }
+        int rows = jdbcTemplate.update(sql, params);
+        return new BulkInventoryUpdateResponse.RuleResult(rule.getCategory(), rule.getPercent(), rows);
+    }
+
+    private Map<Long, CurrentRow> lockOwned(Long retailerId, Set<Long> ids) {
+        Map<Long, CurrentRow> owned = new HashMap<>();
+        if (ids.isEmpty()) {
+            return owned;
+        }
+        jdbcTemplate.query(LOCK_OWNED_SQL, new MapSqlParameterSource()
+                .addValue("retailerId", retailerId)
+                .addValue("ids", ids), rs -> {
+            owned.put(rs.getLong("id"), new CurrentRow(
+                    rs.getBigDecimal("pool"),
+                    rs.getBigDecimal("quantity"),
+                    rs.getBigDecimal("price"),
+                    rs.getObject("expiry_date", LocalDate.class),
+                    rs.getBigDecimal("low_stock_threshold"),
+                    rs.getBoolean("low_stock")));
+        });
+        return owned;
+    }
+
+    private String validate(IngredientPatch patch) {
+        Set<ConstraintViolation<IngredientPatch>> violations = validator.validate(patch);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        return null;
+    }
+
+    private record CurrentRow(BigDecimal pool, BigDecimal quantity, BigDecimal price, LocalDate expiryDate,
+                              BigDecimal lowStockThreshold, boolean lowStock) {
+    }
+}
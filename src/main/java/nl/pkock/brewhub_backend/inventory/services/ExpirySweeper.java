@@ -0,0 +1,122 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Flags ingredients whose expiry date has passed. Expiry dates are walked in buckets of
+ * {@code bucket-days} starting at the oldest unflagged date; each bucket is flagged with
+ * set-based updates of at most {@code batch-size} rows, each in its own short transaction.
+ */
+@Slf4j
+@Component
+public class ExpirySweeper {
+
+    private static final String OLDEST_UNEXPIRED_SQL =
+            "SELECT MIN(expiry_date) FROM ingredients WHERE expired = false AND expiry_date < :today";
+
+    private static final String SELECT_BATCH_SQL =
+            "SELECT id, retailer_id FROM ingredients " +
+                    "WHERE expired = false AND expiry_date >= :from AND expiry_date < :to ORDER BY id LIMIT :limit";
+
+    private static final String FLAG_BATCH_SQL =
+            "UPDATE ingredients SET expired = true WHERE expired = false AND id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int bucketDays;
+    private final int batchSize;
+    private final DistributionSummary rowsPerRun;
+    private final Timer sweepDuration;
+
+    public ExpirySweeper(NamedParameterJdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         ApplicationEventPublisher eventPublisher,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.inventory.expiry.bucket-days:7}") int bucketDays,
+                         @Value("${app.inventory.expiry.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.bucketDays = bucketDays;
+        this.batchSize = batchSize;
+        this.rowsPerRun = DistributionSummary.builder("brewhub.inventory.expiry.sweep.rows").register(meterRegistry);
+        this.sweepDuration = Timer.builder("brewhub.inventory.expiry.sweep.duration").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.inventory.expiry.sweep-cron:0 5 0 * * *}")
+    public void sweepScheduled() {
+        sweep(LocalDate.now());
+    }
+
+    /**
+     * Flags everything that expired before {@code today} and returns the number of rows flagged.
+     */
+    public int sweep(LocalDate today) {
+        Timer.Sample sample = Timer.start();
+        int flagged = 0;
+
+        LocalDate from = oldestUnexpired(today);
+        while (from != null) {
+            LocalDate to = from.plusDays(bucketDays).isBefore(today) ? from.plusDays(bucketDays) : today;
+            int batch;
+            do {
+                batch = flagBatch(from, to);
+                flagged += batch;
+            } while (batch == batchSize);
+            from = to.isBefore(today) ? oldestUnexpired(today) : null;
+        }
+
+        rowsPerRun.record(flagged);
+        long nanos = sample.stop(sweepDuration);
+        if (flagged > 0) {
+            log.info("Flagged {} expired ingredients in {} ms", flagged, nanos / 1_000_000);
+        }
+        return flagged;
+    }
+
+    private LocalDate oldestUnexpired(LocalDate today) {
+        return jdbcTemplate.queryForObject(OLDEST_UNEXPIRED_SQL,
+                new MapSqlParameterSource("today", Date.valueOf(today)), LocalDate.class);
+    }
+
+    private int flagBatch(LocalDate from, LocalDate to) {
+        Integer flagged = transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            Map<Long, Set<Long>> idsByRetailer = new LinkedHashMap<>();
+            jdbcTemplate.query(SELECT_BATCH_SQL, new MapSqlParameterSource()
+                    .addValue("from", Date.valueOf(from))
+                    .addValue("to", Date.valueOf(to))
+                    .addValue("limit", batchSize), rs -> {
+                ids.add(rs.getLong("id"));
+                idsByRetailer.computeIfAbsent(rs.getLong("retailer_id"), retailerId -> new HashSet<>()).add(rs.getLong("id"));
+            });
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            jdbcTemplate.update(FLAG_BATCH_SQL, new MapSqlParameterSource("ids", ids));
+            idsByRetailer.forEach((retailerId, expired) -> eventPublisher.publishEvent(new IngredientsChangedEvent(retailerId, expired)));
+            return ids.size();
+        });
+        return flagged != null ? flagged : 0;
+    }
+}
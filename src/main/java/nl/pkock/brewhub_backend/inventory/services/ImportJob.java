@@ -0,0 +1,74 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import lombok.Getter;
+import lombok.Setter;
+import nl.pkock.brewhub_backend.inventory.models.ImportJobStatus;
+import nl.pkock.brewhub_backend.inventory.models.ImportMode;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Getter
+class ImportJob {
+    private final String id;
+    private final Long retailerId;
+    private final String fileName;
+    private final ImportMode importMode;
+    private final Path spoolFile;
+    private final Path errorReport;
+    private final long totalBytes;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong rowsProcessed = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsUpdated = new AtomicLong();
+    private final AtomicLong rowsUnchanged = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+
+    @Setter
+    private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+    @Setter
+    private volatile String message;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+
+    ImportJob(String id, Long retailerId, String fileName, ImportMode importMode,
+              Path spoolFile, Path errorReport, long totalBytes) {
+        this.id = id;
+        this.retailerId = retailerId;
+        this.fileName = fileName;
+        this.importMode = importMode;
+        this.spoolFile = spoolFile;
+        this.errorReport = errorReport;
+        this.totalBytes = totalBytes;
+    }
+
+    void markStarted() {
+        startedNanos = System.nanoTime();
+        startedAt = LocalDateTime.now();
+        status = ImportJobStatus.RUNNING;
+    }
+
+    void markFinished(ImportJobStatus finalStatus, String finalMessage) {
+        finishedNanos = System.nanoTime();
+        finishedAt = LocalDateTime.now();
+        message = finalMessage;
+        status = finalStatus;
+    }
+
+    boolean isFinished() {
+        return status == ImportJobStatus.COMPLETED || status == ImportJobStatus.FAILED;
+    }
+
+    double elapsedSeconds() {
+        if (startedAt == null) {
+            return 0;
+        }
+        long end = finishedAt != null ? finishedNanos : System.nanoTime();
+        return (end - startedNanos) / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,348 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import com.opencsv.CSVWriter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nl.pkock.brewhub_backend.auth.models.User;
+import nl.pkock.brewhub_backend.auth.security.CurrentUser;
+import nl.pkock.brewhub_backend.inventory.dto.ImportJobDTO;
+import nl.pkock.brewhub_backend.inventory.exceptions.ImportQueueFullException;
+import nl.pkock.brewhub_backend.inventory.models.ImportJobStatus;
+import nl.pkock.brewhub_backend.inventory.models.ImportMode;
+import nl.pkock.brewhub_backend.inventory.models.Ingredient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs inventory imports in the background. Uploads are spooled to disk and processed by a
+ * small bounded pool; valid rows are committed in chunks, so a failure part-way keeps the
+ * rows already imported, and rejected rows are written to a per-job error report.
+ */
+@Slf4j
+@Service
+public class ImportJobService {
+
+    private final IngredientCsvReader ingredientCsvReader;
+    private final IngredientBulkLoader ingredientBulkLoader;
+    private final CurrentUser currentUser;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Path spoolDirectory;
+    private final int chunkSize;
+    private final long retentionMinutes;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(IngredientCsvReader ingredientCsvReader,
+                            IngredientBulkLoader ingredientBulkLoader,
+                            CurrentUser currentUser,
+                            TransactionTemplate transactionTemplate,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${app.inventory.import.jobs.spool-dir:${java.io.tmpdir}/brewhub-imports}") String spoolDirectory,
+                            @Value("${app.inventory.import.jobs.threads:2}") int threads,
+                            @Value("${app.inventory.import.jobs.queue-capacity:10}") int queueCapacity,
+                            @Value("${app.inventory.import.jobs.chunk-size:5000}") int chunkSize,
+                            @Value("${app.inventory.import.jobs.retention-minutes:60}") long retentionMinutes) throws IOException {
+        this.ingredientCsvReader = ingredientCsvReader;
+        this.ingredientBulkLoader = ingredientBulkLoader;
+        this.currentUser = currentUser;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.spoolDirectory = Files.createDirectories(Paths.get(spoolDirectory));
+        this.chunkSize = chunkSize;
+        this.retentionMinutes = retentionMinutes;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "inventory-import-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public ImportJobDTO submit(Long retailerId, MultipartFile file, ImportMode importMode) {
+        if (file.isEmpty()) {
+            throw new RuntimeException("Please select a file to import");
+        }
+
+        String id = UUID.randomUUID().toString();
+        Path spoolFile = spoolDirectory.resolve("import-" + id + ".csv");
+        Path errorReport = spoolDirectory.resolve("import-" + id + "-errors.csv");
+        try {
+            file.transferTo(spoolFile);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store import file: " + e.getMessage());
+        }
+
+        ImportJob job = new ImportJob(id, retailerId, file.getOriginalFilename(), importMode,
+                spoolFile, errorReport, file.getSize());
+        jobs.put(id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(id);
+            deleteQuietly(spoolFile);
+            throw new ImportQueueFullException("Too many imports are running, please try again later", 30);
+        }
+        return toDTO(job);
+    }
+
+    public ImportJobDTO getJob(Long retailerId, String jobId) {
+        return toDTO(findJob(retailerId, jobId));
+    }
+
+    public Path getErrorReport(Long retailerId, String jobId) {
+        ImportJob job = findJob(retailerId, jobId);
+        if (!job.isFinished() || !Files.exists(job.getErrorReport())) {
+            throw new RuntimeException("No error report available for this import");
+        }
+        return job.getErrorReport();
+    }
+
+    private ImportJob findJob(Long retailerId, String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null || !job.getRetailerId().equals(retailerId)) {
+            throw new RuntimeException("Import job not found");
+        }
+        return job;
+    }
+
+    private void run(ImportJob job) {
+        job.markStarted();
+        List<ChunkRow> chunk = new ArrayList<>(chunkSize);
+
+        try (InputStream input = new CountingInputStream(Files.newInputStream(job.getSpoolFile()), job);
+             ErrorReportWriter errors = new ErrorReportWriter(job.getErrorReport())) {
+            User retailer = currentUser.reference(job.getRetailerId());
+            IngredientMerge merge = job.getImportMode() == ImportMode.MERGE
+                    ? ingredientBulkLoader.beginMerge(job.getRetailerId())
+                    : null;
+            IngredientCsvReader.RowHandler handler = new IngredientCsvReader.RowHandler() {
+                @Override
+                public void onRow(int rowNumber, Ingredient ingredient) {
+                    chunk.add(new ChunkRow(rowNumber, ingredient));
+                    if (chunk.size() >= chunkSize) {
+                        commitChunk(job, chunk, merge, this);
+                    }
+                }
+
+                @Override
+                public void onError(int rowNumber, String message) {
+                    errors.write(rowNumber, message);
+                    job.getRowsFailed().incrementAndGet();
+                    job.getRowsProcessed().incrementAndGet();
+                }
+            };
+            ingredientCsvReader.read(input, retailer, handler);
+            commitChunk(job, chunk, merge, handler);
+
+            job.markFinished(ImportJobStatus.COMPLETED, "Imported " + job.getRowsImported().get() + " ingredients, updated "
+                    + job.getRowsUpdated().get() + ", " + job.getRowsUnchanged().get() + " unchanged, "
+                    + job.getRowsFailed().get() + " rows failed");
+        } catch (Exception e) {
+            log.warn("Inventory import {} failed: {}", job.getId(), e.getMessage());
+            job.markFinished(ImportJobStatus.FAILED, "Import stopped after " + job.getRowsImported().get()
+                    + " ingredients: " + e.getMessage());
+        } finally {
+            deleteQuietly(job.getSpoolFile());
+        }
+    }
+
+    private void commitChunk(ImportJob job, List<ChunkRow> chunk, IngredientMerge merge,
+                             IngredientCsvReader.RowHandler handler) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<ChunkRow> rejected = new ArrayList<>();
+        int[] counts = transactionTemplate.execute(status -> {
+            int unchanged = 0;
+            int inserted;
+            try (IngredientBulkLoader.Session session = ingredientBulkLoader.open(job.getRetailerId())) {
+                for (ChunkRow row : chunk) {
+                    IngredientMerge.Outcome outcome;
+                    try {
+                        outcome = merge != null ? merge.plan(row.rowNumber(), row.ingredient()) : IngredientMerge.Outcome.INSERT;
+                    } catch (RuntimeException e) {
+                        rejected.add(new ChunkRow(row.rowNumber(), null, e.getMessage()));
+                        continue;
+                    }
+                    if (outcome == IngredientMerge.Outcome.INSERT) {
+                        session.add(row.ingredient());
+                    } else if (outcome == IngredientMerge.Outcome.UNCHANGED) {
+                        unchanged++;
+                    }
+                }
+                inserted = session.finish();
+            }
+            int updated = 0;
+            if (merge != null) {
+                int before = merge.getUpdated();
+                merge.flushUpdates();
+                updated = merge.getUpdated() - before;
+            }
+            eventPublisher.publishEvent(new IngredientsChangedEvent(job.getRetailerId()));
+            return new int[]{inserted, updated, unchanged};
+        });
+
+        job.getRowsImported().addAndGet(counts[0]);
+        job.getRowsUpdated().addAndGet(counts[1]);
+        job.getRowsUnchanged().addAndGet(counts[2]);
+        job.getRowsProcessed().addAndGet(chunk.size() - rejected.size());
+        chunk.clear();
+        rejected.forEach(row -> handler.onError(row.rowNumber(), row.error()));
+    }
+
+    private ImportJobDTO toDTO(ImportJob job) {
+        ImportJobDTO dto = new ImportJobDTO();
+        dto.setId(job.getId());
+        dto.setFileName(job.getFileName());
+        dto.setStatus(job.getStatus());
+        dto.setRowsProcessed(job.getRowsProcessed().get());
+        dto.setRowsImported(job.getRowsImported().get());
+        dto.setRowsUpdated(job.getRowsUpdated().get());
+        dto.setRowsUnchanged(job.getRowsUnchanged().get());
+        dto.setRowsFailed(job.getRowsFailed().get());
+        dto.setImportMode(job.getImportMode());
+        dto.setMessage(job.getMessage());
+        dto.setSubmittedAt(job.getSubmittedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        dto.setErrorReportAvailable(job.isFinished() && job.getRowsFailed().get() > 0);
+
+        double elapsed = job.elapsedSeconds();
+        if (elapsed > 0) {
+            dto.setRowsPerSecond(Math.round(job.getRowsProcessed().get() / elapsed));
+        }
+
+        long bytesRead = job.getBytesRead().get();
+        if (job.isFinished()) {
+            dto.setPercentComplete(100.0);
+            dto.setEtaSeconds(0L);
+        } else if (job.getTotalBytes() > 0) {
+            double fraction = Math.min(1.0, (double) bytesRead / job.getTotalBytes());
+            dto.setPercentComplete(Math.round(fraction * 1000) / 10.0);
+            if (bytesRead > 0 && elapsed > 0) {
+                dto.setEtaSeconds(Math.round(elapsed * (job.getTotalBytes() - bytesRead) / bytesRead));
+            }
+        }
+        return dto;
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> {
+            if (job.isFinished() && job.getFinishedAt().isBefore(cutoff)) {
+                deleteQuietly(job.getErrorReport());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private record ChunkRow(int rowNumber, Ingredient ingredient, String error) {
+        ChunkRow(int rowNumber, Ingredient ingredient) {
+            this(rowNumber, ingredient, null);
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private final ImportJob job;
+
+        CountingInputStream(InputStream in, ImportJob job) {
+            super(in);
+            this.job = job;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                job.getBytesRead().incrementAndGet();
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                job.getBytesRead().addAndGet(count);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Opens the report lazily, so jobs without rejected rows leave no file behind.
+     */
+    private static class ErrorReportWriter implements AutoCloseable {
+        private final Path path;
+        private CSVWriter writer;
+
+        ErrorReportWriter(Path path) {
+            this.path = path;
+        }
+
+        void write(int rowNumber, String message) {
+            try {
+                if (writer == null) {
+                    writer = new CSVWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8));
+                    writer.writeNext(new String[]{"Row", "Error"});
+                }
+                writer.writeNext(new String[]{String.valueOf(rowNumber), message});
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to write error report: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import nl.pkock.brewhub_backend.inventory.models.Ingredient;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads imported ingredients without going through Hibernate, which cannot batch
+ * inserts for IDENTITY ids. On PostgreSQL rows are streamed with COPY into a temporary
+ * staging table and moved into {@code ingredients} with one INSERT ... SELECT; other
+ * databases get chunked JDBC batch inserts. Each session records an IMPORT movement in the
+ * {@link StockLedger} for the rows it inserted. Must be called inside a transaction.
+ */
+@Component
+public class IngredientBulkLoader {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO ingredients (name, category, quantity, unit, price, expiry_date, low_stock_threshold, low_stock, expired, active, retailer_id) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, true, ?)";
+
+    private static final String CREATE_STAGING_SQL =
+            "CREATE TEMPORARY TABLE IF NOT EXISTS ingredient_import_staging (" +
+                    "name VARCHAR(255), category VARCHAR(255), quantity NUMERIC, unit VARCHAR(255), " +
+                    "price NUMERIC, expiry_date DATE, low_stock_threshold NUMERIC) ON COMMIT DROP";
+
+    private static final String COPY_SQL =
+            "COPY ingredient_import_staging (name, category, quantity, unit, price, expiry_date, low_stock_threshold) " +
+                    "FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MERGE_STAGING_SQL =
+            "INSERT INTO ingredients (name, category, quantity, unit, price, expiry_date, low_stock_threshold, low_stock, expired, active, retailer_id) " +
+                    "SELECT name, category, quantity, unit, price, expiry_date, low_stock_threshold, " +
+                    "quantity <= low_stock_threshold, expiry_date < CURRENT_DATE, true, ? " +
+                    "FROM ingredient_import_staging";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockLedger stockLedger;
+    private final StockShards stockShards;
+    private final int batchSize;
+
+    public IngredientBulkLoader(DataSource dataSource,
+                                JdbcTemplate jdbcTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                StockLedger stockLedger,
+                                StockShards stockShards,
+                                @Value("${app.inventory.import.batch-size:1000}") int batchSize) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.stockLedger = stockLedger;
+        this.stockShards = stockShards;
+        this.batchSize = batchSize;
+    }
+
+    public Session open(Long retailerId) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        long watermark = stockLedger.ingredientWatermark();
+        try {
+            if (connection.isWrapperFor(PGConnection.class)) {
+                jdbcTemplate.execute(CREATE_STAGING_SQL);
+                return new CopySession(retailerId, watermark, connection.unwrap(PGConnection.class));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not start bulk import: " + e.getMessage());
+        }
+        return new BatchSession(retailerId, watermark);
+    }
+
+    IngredientMerge beginMerge(Long retailerId) {
+        return new IngredientMerge(jdbcTemplate, eventPublisher, stockLedger, stockShards, retailerId, batchSize);
+    }
+
+    public interface Session extends AutoCloseable {
+        void add(Ingredient ingredient);
+
+        /**
+         * Writes any buffered rows and returns the number of ingredients inserted.
+         */
+        int finish();
+
+        String getMode();
+
+        @Override
+        void close();
+    }
+
+    private class CopySession implements Session {
+        private final Long retailerId;
+        private final long watermark;
+        private final PGCopyOutputStream copyStream;
+        private final Writer writer;
+        private final StringBuilder line = new StringBuilder(256);
+        private boolean finished;
+
+        CopySession(Long retailerId, long watermark, PGConnection connection) throws SQLException {
+            this.retailerId = retailerId;
+            this.watermark = watermark;
+            this.copyStream = new PGCopyOutputStream(connection, COPY_SQL, 65536);
+            this.writer = new BufferedWriter(new OutputStreamWriter(copyStream, StandardCharsets.UTF_8), 65536);
+        }
+
+        @Override
+        public void add(Ingredient ingredient) {
+            line.setLength(0);
+            appendText(ingredient.getName()).append(',');
+            appendText(ingredient.getCategory().name()).append(',');
+            appendNumber(ingredient.getQuantity()).append(',');
+            appendText(ingredient.getUnit()).append(',');
+            appendNumber(ingredient.getPrice()).append(',');
+            line.append(ingredient.getExpiryDate()).append(',');
+            appendNumber(ingredient.getLowStockThreshold()).append('\n');
+            try {
+                writer.append(line);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to stream row to database: " + e.getMessage());
+            }
+        }
+
+        private StringBuilder appendText(String value) {
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    line.append('"');
+                }
+                line.append(c);
+            }
+            return line.append('"');
+        }
+
+        private StringBuilder appendNumber(BigDecimal value) {
+            return line.append(value.toPlainString());
+        }
+
+        @Override
+        public int finish() {
+            try {
+                writer.flush();
+                copyStream.endCopy();
+                finished = true;
+            } catch (IOException | SQLException e) {
+                throw new RuntimeException("Failed to stream rows to database: " + e.getMessage());
+            }
+            int inserted = jdbcTemplate.update(MERGE_STAGING_SQL, retailerId);
+            stockLedger.recordImported(retailerId, watermark);
+            return inserted;
+        }
+
+        @Override
+        public String getMode() {
+            return "copy";
+        }
+
+        @Override
+        public void close() {
+            if (!finished && copyStream.isActive()) {
+                try {
+                    copyStream.cancelCopy();
+                } catch (SQLException ignored) {
+                    // The surrounding transaction is rolled back anyway
+                }
+            }
+        }
+    }
+
+    private class BatchSession implements Session {
+        private final Long retailerId;
+        private final long watermark;
+        private final List<Object[]> batch = new ArrayList<>();
+        private int inserted;
+
+        BatchSession(Long retailerId, long watermark) {
+            this.retailerId = retailerId;
+            this.watermark = watermark;
+        }
+
+        @Override
+        public void add(Ingredient ingredient) {
+            batch.add(new Object[]{
+                    ingredient.getName(),
+                    ingredient.getCategory().name(),
+                    ingredient.getQuantity(),
+                    ingredient.getUnit(),
+                    ingredient.getPrice(),
+                    Date.valueOf(ingredient.getExpiryDate()),
+                    ingredient.getLowStockThreshold(),
+                    ingredient.getLowStock(),
+                    ingredient.getExpired(),
+                    retailerId
+            });
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                inserted += batch.size();
+                batch.clear();
+            }
+        }
+
+        @Override
+        public int finish() {
+            flush();
+            stockLedger.recordImported(retailerId, watermark);
+            return inserted;
+        }
+
+        @Override
+        public String getMode() {
+            return "batch";
+        }
+
+        @Override
+        public void close() {
+            batch.clear();
+        }
+    }
+}
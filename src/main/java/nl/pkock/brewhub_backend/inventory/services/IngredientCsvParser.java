@@ -0,0 +1,307 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import nl.pkock.brewhub_backend.inventory.dto.IngredientCsvDTO;
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming parser for the inventory CSV format. Records are read from a fixed char buffer
+ * into a reusable field buffer; header positions are resolved once, numbers and dates are
+ * parsed straight from the field chars and categories are matched against a table built at
+ * class load. Only name and unit become Strings.
+ */
+class IngredientCsvParser {
+
+    private static final String[] COLUMNS = {
+            "NAME", "CATEGORY", "QUANTITY", "UNIT", "PRICE", "EXPIRY DATE", "LOW STOCK THRESHOLD"
+    };
+    private static final int NAME = 0;
+    private static final int CATEGORY = 1;
+    private static final int QUANTITY = 2;
+    private static final int UNIT = 3;
+    private static final int PRICE = 4;
+    private static final int EXPIRY_DATE = 5;
+    private static final int LOW_STOCK_THRESHOLD = 6;
+
+    private static final IngredientCategory[][] CATEGORIES_BY_LENGTH;
+
+    static {
+        int maxLength = 0;
+        for (IngredientCategory category : IngredientCategory.values()) {
+            maxLength = Math.max(maxLength, category.name().length());
+        }
+        List<List<IngredientCategory>> byLength = new ArrayList<>();
+        for (int i = 0; i <= maxLength; i++) {
+            byLength.add(new ArrayList<>());
+        }
+        for (IngredientCategory category : IngredientCategory.values()) {
+            byLength.get(category.name().length()).add(category);
+        }
+        CATEGORIES_BY_LENGTH = new IngredientCategory[maxLength + 1][];
+        for (int i = 0; i <= maxLength; i++) {
+            CATEGORIES_BY_LENGTH[i] = byLength.get(i).toArray(new IngredientCategory[0]);
+        }
+    }
+
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final char[] buffer = new char[65536];
+    private int position;
+    private int limit;
+
+    private char[] record = new char[512];
+    private int recordLength;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int fieldCount;
+
+    private final int[] columnPositions = new int[COLUMNS.length];
+
+    IngredientCsvParser(Reader reader) throws IOException {
+        this.reader = reader;
+        if (peek() == '\uFEFF') {
+            position++;
+        }
+        if (!nextRecord()) {
+            throw new RuntimeException("CSV file is empty");
+        }
+        resolveHeader();
+    }
+
+    private void resolveHeader() {
+        Arrays.fill(columnPositions, -1);
+        for (int field = 0; field < fieldCount; field++) {
+            String header = new String(record, fieldStarts[field], fieldEnds[field] - fieldStarts[field]).trim();
+            for (int column = 0; column < COLUMNS.length; column++) {
+                if (columnPositions[column] < 0 && COLUMNS[column].equalsIgnoreCase(header)) {
+                    columnPositions[column] = field;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the next record into the field buffer. Returns {@code false} at end of input.
+     */
+    boolean nextRecord() throws IOException {
+        int c = read();
+        if (c == EOF) {
+            return false;
+        }
+        recordLength = 0;
+        fieldCount = 0;
+
+        while (true) {
+            while (c == ' ' || c == '\t') {
+                c = read();
+            }
+            int start = recordLength;
+            if (c == '"') {
+                while (true) {
+                    c = read();
+                    if (c == EOF) {
+                        throw new RuntimeException("Unterminated quoted field");
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            break;
+                        }
+                    }
+                    append((char) c);
+                }
+                while (c != ',' && c != '\n' && c != '\r' && c != EOF) {
+                    c = read();
+                }
+            } else {
+                while (c != ',' && c != '\n' && c != '\r' && c != EOF) {
+                    append((char) c);
+                    c = read();
+                }
+            }
+            addField(start, recordLength);
+
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+            if (c == '\r' && peek() == '\n') {
+                position++;
+            }
+            return true;
+        }
+    }
+
+    boolean isBlankRecord() {
+        return fieldCount == 1 && fieldEnds[0] == fieldStarts[0];
+    }
+
+    void bind(IngredientCsvDTO target) {
+        target.setName(text(NAME));
+        target.setCategory(category());
+        target.setQuantity(decimal(QUANTITY, "Quantity"));
+        target.setUnit(text(UNIT));
+        target.setPrice(decimal(PRICE, "Price"));
+        target.setExpiryDate(date());
+        target.setLowStockThreshold(decimal(LOW_STOCK_THRESHOLD, "Low Stock Threshold"));
+    }
+
+    private String text(int column) {
+        int field = columnPositions[column];
+        if (field < 0 || field >= fieldCount || fieldEnds[field] == fieldStarts[field]) {
+            return null;
+        }
+        return new String(record, fieldStarts[field], fieldEnds[field] - fieldStarts[field]);
+    }
+
+    private IngredientCategory category() {
+        int field = columnPositions[CATEGORY];
+        if (field < 0 || field >= fieldCount) {
+            return null;
+        }
+        int start = trimStart(field);
+        int length = trimEnd(field) - start;
+        if (length == 0) {
+            return null;
+        }
+        if (length < CATEGORIES_BY_LENGTH.length) {
+            for (IngredientCategory category : CATEGORIES_BY_LENGTH[length]) {
+                if (matchesIgnoreCase(category.name(), start, length)) {
+                    return category;
+                }
+            }
+        }
+        throw new RuntimeException("Unknown category: " + new String(record, start, length));
+    }
+
+    private boolean matchesIgnoreCase(String name, int start, int length) {
+        for (int i = 0; i < length; i++) {
+            if (Character.toUpperCase(record[start + i]) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private BigDecimal decimal(int column, String label) {
+        int field = columnPositions[column];
+        if (field < 0 || field >= fieldCount) {
+            return null;
+        }
+        int start = trimStart(field);
+        int length = trimEnd(field) - start;
+        if (length == 0) {
+            return null;
+        }
+        try {
+            return new BigDecimal(record, start, length);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException(label + " is not a valid number: " + new String(record, start, length));
+        }
+    }
+
+    private LocalDate date() {
+        int field = columnPositions[EXPIRY_DATE];
+        if (field < 0 || field >= fieldCount) {
+            return null;
+        }
+        int start = trimStart(field);
+        int length = trimEnd(field) - start;
+        if (length == 0) {
+            return null;
+        }
+        if (length == 10 && record[start + 4] == '-' && record[start + 7] == '-') {
+            int year = digits(start, 4);
+            int month = digits(start + 5, 2);
+            int day = digits(start + 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                try {
+                    return LocalDate.of(year, month, day);
+                } catch (DateTimeException ignored) {
+                    // Reported below together with malformed dates
+                }
+            }
+        }
+        throw new RuntimeException("Expiry Date must be a valid yyyy-MM-dd date: " + new String(record, start, length));
+    }
+
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = record[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private int trimStart(int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        while (start < end && Character.isWhitespace(record[start])) {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimEnd(int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        while (end > start && Character.isWhitespace(record[end - 1])) {
+            end--;
+        }
+        return end;
+    }
+
+    private void append(char c) {
+        if (recordLength == record.length) {
+            record = Arrays.copyOf(record, record.length * 2);
+        }
+        record[recordLength++] = c;
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int count = reader.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = count;
+        return true;
+    }
+}
@@ -0,0 +1,81 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import nl.pkock.brewhub_backend.auth.models.User;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientCsvDTO;
+import nl.pkock.brewhub_backend.inventory.models.Ingredient;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the inventory CSV format row by row and hands each converted ingredient, or the
+ * reason a row was rejected, to a {@link RowHandler}. Rows are numbered like a spreadsheet,
+ * so the first data row is row 2.
+ */
+@Component
+public class IngredientCsvReader {
+
+    public interface RowHandler {
+        void onRow(int rowNumber, Ingredient ingredient);
+
+        void onError(int rowNumber, String message);
+    }
+
+    public void read(InputStream inputStream, User retailer, RowHandler handler) {
+        try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            IngredientCsvParser parser = new IngredientCsvParser(reader);
+            IngredientCsvDTO csvDto = new IngredientCsvDTO();
+
+            int rowNumber = 1;
+            while (parser.nextRecord()) {
+                rowNumber++;
+                if (parser.isBlankRecord()) {
+                    continue;
+                }
+                Ingredient ingredient;
+                try {
+                    parser.bind(csvDto);
+                    ingredient = createIngredientFromCsvDTO(csvDto, retailer);
+                } catch (RuntimeException e) {
+                    handler.onError(rowNumber, e.getMessage());
+                    continue;
+                }
+                handler.onRow(rowNumber, ingredient);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error processing CSV file: " + e.getMessage());
+        }
+    }
+
+    private Ingredient createIngredientFromCsvDTO(IngredientCsvDTO csvDto, User retailer) {
+        requireField(csvDto.getName(), "Name");
+        requireField(csvDto.getCategory(), "Category");
+        requireField(csvDto.getQuantity(), "Quantity");
+        requireField(csvDto.getUnit(), "Unit");
+        requireField(csvDto.getPrice(), "Price");
+        requireField(csvDto.getExpiryDate(), "Expiry Date");
+        requireField(csvDto.getLowStockThreshold(), "Low Stock Threshold");
+
+        Ingredient ingredient = new Ingredient();
+        ingredient.setName(csvDto.getName());
+        ingredient.setCategory(csvDto.getCategory());
+        ingredient.setQuantity(csvDto.getQuantity());
+        ingredient.setUnit(csvDto.getUnit());
+        ingredient.setPrice(csvDto.getPrice());
+        ingredient.setExpiryDate(csvDto.getExpiryDate());
+        ingredient.setLowStockThreshold(csvDto.getLowStockThreshold());
+        ingredient.setRetailer(retailer);
+        ingredient.setActive(true);
+        return ingredient;
+    }
+
+    private void requireField(Object value, String column) {
+        if (value == null) {
+            throw new RuntimeException(column + " is required");
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import nl.pkock.brewhub_backend.inventory.models.Ingredient;
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+import nl.pkock.brewhub_backend.inventory.models.StockMovementReason;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Matches imported rows to a retailer's existing ingredients by retailer, normalized name and
+ * unit. Existing rows are loaded once; rows that differ are queued for a batched UPDATE
+ * (which also restores deleted ingredients), unknown keys are left for the bulk insert and
+ * identical rows are skipped. Quantity changes are recorded as IMPORT movements, measured
+ * against the stock locked at flush time rather than the snapshot rows were matched on.
+ */
+class IngredientMerge {
+
+    enum Outcome {
+        INSERT,
+        UPDATE,
+        UNCHANGED
+    }
+
+    private static final String SELECT_EXISTING_SQL =
+            "SELECT id, name, category, " + StockShards.TOTAL_QUANTITY_SQL + " AS quantity, unit, price, expiry_date, " +
+                    "low_stock_threshold, active FROM ingredients WHERE retailer_id = ? ORDER BY id";
+
+    private static final String LOCK_MATCHED_SQL =
+            "SELECT id, " + StockShards.TOTAL_QUANTITY_SQL + " AS quantity, low_stock, shard_count, active " +
+                    "FROM ingredients WHERE retailer_id = :retailerId AND id IN (:ids) ORDER BY id FOR UPDATE";
+
+    private static final String UPDATE_SQL =
+            "UPDATE ingredients SET name = ?, category = ?, quantity = ?, price = ?, expiry_date = ?, " +
+                    "low_stock_threshold = ?, low_stock = ?, expired = ?, active = true WHERE id = ? AND retailer_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockLedger stockLedger;
+    private final StockShards stockShards;
+    private final Long retailerId;
+    private final int batchSize;
+    private final Map<String, ExistingIngredient> existingByKey = new HashMap<>();
+    private final Map<String, Integer> rowsByKey = new HashMap<>();
+    private final TreeMap<Long, Ingredient> pendingUpdates = new TreeMap<>();
+    private int updated;
+    private int unchanged;
+
+    IngredientMerge(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher, StockLedger stockLedger,
+                    StockShards stockShards, Long retailerId, int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.eventPublisher = eventPublisher;
+        this.stockLedger = stockLedger;
+        this.stockShards = stockShards;
+        this.retailerId = retailerId;
+        this.batchSize = batchSize;
+
+        jdbcTemplate.query(SELECT_EXISTING_SQL, rs -> {
+            ExistingIngredient existing = new ExistingIngredient(
+                    rs.getLong("id"),
+                    rs.getString("name"),
+                    IngredientCategory.valueOf(rs.getString("category")),
+                    rs.getBigDecimal("quantity"),
+                    rs.getBigDecimal("price"),
+                    rs.getObject("expiry_date", LocalDate.class),
+                    rs.getBigDecimal("low_stock_threshold"),
+                    rs.getBoolean("active"));
+            // Rows imported before merge mode existed may share a key; the oldest one is matched
+            existingByKey.putIfAbsent(key(existing.name(), rs.getString("unit")), existing);
+        }, retailerId);
+    }
+
+    static String key(String name, String unit) {
+        return normalize(name) + '\u0000' + normalize(unit);
+    }
+
+    static String normalize(String value) {
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Decides what to do with an incoming row. Throws when the same key already appeared
+     * earlier in the file, since only one of the two rows could win.
+     */
+    Outcome plan(int rowNumber, Ingredient incoming) {
+        String key = key(incoming.getName(), incoming.getUnit());
+        Integer previousRow = rowsByKey.putIfAbsent(key, rowNumber);
+        if (previousRow != null) {
+            throw new RuntimeException("Duplicate of row " + previousRow);
+        }
+
+        ExistingIngredient existing = existingByKey.get(key);
+        if (existing == null) {
+            return Outcome.INSERT;
+        }
+        if (existing.matches(incoming)) {
+            unchanged++;
+            return Outcome.UNCHANGED;
+        }
+
+        pendingUpdates.put(existing.id(), incoming);
+        return Outcome.UPDATE;
+    }
+
+    /**
+     * Writes queued updates in batches. Called after the bulk insert has finished, because
+     * the connection cannot run other statements while a COPY is in progress.
+     */
+    void flushUpdates() {
+        if (pendingUpdates.isEmpty()) {
+            return;
+        }
+        // Orders may have moved stock since the snapshot; shards and then rows are locked in id
+        // order, like every other stock writer, so the movements below match what is overwritten
+        stockShards.lock(retailerId, pendingUpdates.keySet());
+        Map<Long, LockedStock> locked = lockMatched();
+
+        List<Object[]> updates = new ArrayList<>();
+        List<Long> drains = new ArrayList<>();
+        List<StockLedger.Movement> movements = new ArrayList<>();
+        List<LowStockChangedEvent> crossings = new ArrayList<>();
+        pendingUpdates.forEach((id, incoming) -> {
+            LockedStock current = locked.get(id);
+            updates.add(new Object[]{
+                    incoming.getName(),
+                    incoming.getCategory().name(),
+                    incoming.getQuantity(),
+                    incoming.getPrice(),
+                    Date.valueOf(incoming.getExpiryDate()),
+                    incoming.getLowStockThreshold(),
+                    incoming.getLowStock(),
+                    incoming.getExpired(),
+                    id,
+                    retailerId
+            });
+            if (current.sharded()) {
+                drains.add(id);
+            }
+            movements.add(new StockLedger.Movement(id, retailerId,
+                    incoming.getQuantity().subtract(current.quantity()), StockMovementReason.IMPORT, null));
+            // A restored ingredient is reported like a new one if it comes back low
+            boolean wasLowStock = current.active() && current.lowStock();
+            if (incoming.getLowStock() != wasLowStock) {
+                crossings.add(new LowStockChangedEvent(retailerId, id, incoming.getLowStock()));
+            }
+        });
+
+        stockShards.drain(drains);
+        for (int from = 0; from < updates.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates.subList(from, Math.min(from + batchSize, updates.size())));
+        }
+        updated += updates.size();
+        pendingUpdates.clear();
+        stockLedger.record(movements);
+        crossings.forEach(eventPublisher::publishEvent);
+    }
+
+    private Map<Long, LockedStock> lockMatched() {
+        Map<Long, LockedStock> locked = new HashMap<>();
+        namedJdbcTemplate.query(LOCK_MATCHED_SQL, new MapSqlParameterSource()
+                .addValue("retailerId", retailerId)
+                .addValue("ids", pendingUpdates.keySet()), rs -> {
+            locked.put(rs.getLong("id"), new LockedStock(
+                    rs.getBigDecimal("quantity"),
+                    rs.getBoolean("low_stock"),
+                    rs.getInt("shard_count") > 0,
+                    rs.getBoolean("active")));
+        });
+        return locked;
+    }
+
+    int getUpdated() {
+        return updated;
+    }
+
+    int getUnchanged() {
+        return unchanged;
+    }
+
+    private record LockedStock(BigDecimal quantity, boolean lowStock, boolean sharded, boolean active) {
+    }
+
+    private record ExistingIngredient(long id, String name, IngredientCategory category, BigDecimal quantity,
+                                      BigDecimal price, LocalDate expiryDate, BigDecimal lowStockThreshold,
+                                      boolean active) {
+
+        boolean matches(Ingredient incoming) {
+            return active
+                    && name.equals(incoming.getName())
+                    && category == incoming.getCategory()
+                    && sameAmount(quantity, incoming.getQuantity())
+                    && sameAmount(price, incoming.getPrice())
+                    && Objects.equals(expiryDate, incoming.getExpiryDate())
+                    && sameAmount(lowStockThreshold, incoming.getLowStockThreshold());
+        }
+
+        private static boolean sameAmount(BigDecimal current, BigDecimal incoming) {
+            return current != null && incoming != null && current.compareTo(incoming) == 0;
+        }
+    }
+}
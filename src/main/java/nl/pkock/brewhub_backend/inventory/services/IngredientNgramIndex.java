@@ -0,0 +1,169 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-process trigram index, only used when the database has no pg_trgm (H2 in development and
+ * tests). Trigrams are extracted the way pg_trgm does (per word, padded with two leading and
+ * one trailing space) and scored like word_similarity: the share of the term's trigrams found
+ * in the name. Built per retailer on first search, dropped when that retailer's ingredients
+ * change, and capped at {@code app.inventory.search.ngram-cache.max-retailers} retailers with
+ * the least recently searched evicted first.
+ */
+@Component
+class IngredientNgramIndex {
+
+    private static final double SIMILARITY_THRESHOLD = 0.6;
+
+    private static final String LOAD_SQL =
+            "SELECT id, name, category, active FROM ingredients WHERE retailer_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxRetailers;
+    private final LinkedHashMap<Long, RetailerIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+    private long evictions;
+
+    IngredientNgramIndex(JdbcTemplate jdbcTemplate,
+                         @Value("${app.inventory.search.ngram-cache.max-retailers:100}") int maxRetailers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxRetailers = maxRetailers;
+    }
+
+    List<Long> search(Long retailerId, boolean active, String term, IngredientCategory category, int limit) {
+        RetailerIndex index = indexFor(retailerId);
+        Set<String> termTrigrams = trigrams(term);
+
+        Map<Long, Integer> shared = new HashMap<>();
+        for (String trigram : termTrigrams) {
+            for (Long id : index.postings.getOrDefault(trigram, List.of())) {
+                shared.merge(id, 1, Integer::sum);
+            }
+        }
+
+        // A name containing the term shares every trigram inside the term's words, so only
+        // names found in the postings (or in the category) can match. Terms without a word of
+        // three characters have no such trigram and are checked against every name.
+        Collection<Entry> candidates = index.entries.values();
+        if (hasInnerTrigram(term)) {
+            Set<Long> ids = new HashSet<>(shared.keySet());
+            if (category != null) {
+                ids.addAll(index.byCategory.getOrDefault(category, List.of()));
+            }
+            candidates = ids.stream().map(index.entries::get).toList();
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (Entry entry : candidates) {
+            if (entry.active != active) {
+                continue;
+            }
+            boolean contains = entry.name.contains(term);
+            double score = termTrigrams.isEmpty() ? 0 : shared.getOrDefault(entry.id, 0) / (double) termTrigrams.size();
+            if (contains || score >= SIMILARITY_THRESHOLD || entry.category == category) {
+                matches.add(new Match(entry.id, contains, score));
+            }
+        }
+        matches.sort(Comparator.comparing(Match::contains).reversed()
+                .thenComparing(Comparator.comparingDouble(Match::score).reversed())
+                .thenComparingLong(Match::id));
+        return matches.stream().limit(limit).map(Match::id).toList();
+    }
+
+    synchronized void evict(Long retailerId) {
+        indexes.remove(retailerId);
+        evictions++;
+    }
+
+    // Loads outside the lock; an index read before a concurrent eviction is used once but not kept
+    private RetailerIndex indexFor(Long retailerId) {
+        long evictionsBefore;
+        synchronized (this) {
+            RetailerIndex cached = indexes.get(retailerId);
+            if (cached != null) {
+                return cached;
+            }
+            evictionsBefore = evictions;
+        }
+        RetailerIndex loaded = load(retailerId);
+        synchronized (this) {
+            if (evictions == evictionsBefore) {
+                indexes.putIfAbsent(retailerId, loaded);
+                Iterator<Long> eldest = indexes.keySet().iterator();
+                while (indexes.size() > maxRetailers && eldest.hasNext()) {
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private RetailerIndex load(Long retailerId) {
+        RetailerIndex index = new RetailerIndex();
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            Entry entry = new Entry(
+                    rs.getLong("id"),
+                    rs.getString("name").toLowerCase(Locale.ROOT),
+                    IngredientCategory.valueOf(rs.getString("category")),
+                    rs.getBoolean("active"));
+            index.entries.put(entry.id, entry);
+            index.byCategory.computeIfAbsent(entry.category, key -> new ArrayList<>()).add(entry.id);
+            for (String trigram : trigrams(entry.name)) {
+                index.postings.computeIfAbsent(trigram, key -> new ArrayList<>()).add(entry.id);
+            }
+        }, retailerId);
+        return index;
+    }
+
+    private static boolean hasInnerTrigram(String term) {
+        for (String word : term.split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() >= 3) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static Set<String> trigrams(String value) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (String word : value.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    private static class RetailerIndex {
+        private final Map<Long, Entry> entries = new HashMap<>();
+        private final Map<String, List<Long>> postings = new HashMap<>();
+        private final Map<IngredientCategory, List<Long>> byCategory = new EnumMap<>(IngredientCategory.class);
+    }
+
+    private record Entry(long id, String name, IngredientCategory category, boolean active) {
+    }
+
+    private record Match(long id, boolean contains, double score) {
+    }
+}
@@ -0,0 +1,76 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import lombok.RequiredArgsConstructor;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientCursor;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientDTO;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientPageDTO;
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+import nl.pkock.brewhub_backend.inventory.models.IngredientSort;
+import nl.pkock.brewhub_backend.inventory.repository.IngredientRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Keyset pagination over a retailer's ingredients. One row beyond the page is fetched to
+ * tell whether another page exists; the cursor points at the last row returned. Quantity
+ * ordering uses the {@code quantity} column, which for high-demand ingredients is only the
+ * unsharded pool; the returned quantities include the shards.
+ */
+@Component
+class IngredientPager {
+    private final IngredientRepository ingredientRepository;
+    private final IngredientSearchService ingredientSearchService;
+    private final StockShards stockShards;
+    private final int maxPageSize;
+
+    IngredientPager(IngredientRepository ingredientRepository,
+                    IngredientSearchService ingredientSearchService,
+                    StockShards stockShards,
+                    @Value("${app.inventory.page.max-size:100}") int maxPageSize) {
+        this.ingredientRepository = ingredientRepository;
+        this.ingredientSearchService = ingredientSearchService;
+        this.stockShards = stockShards;
+        this.maxPageSize = maxPageSize;
+    }
+
+    IngredientPageDTO page(Long retailerId, boolean active, String search, IngredientCategory category,
+                           IngredientSort sort, boolean descending, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        IngredientCursor after = cursor != null && !cursor.isBlank()
+                ? IngredientCursor.decode(cursor, sort, descending)
+                : null;
+        List<Long> ids = null;
+        if (search != null && !search.trim().isEmpty()) {
+            ids = ingredientSearchService.search(retailerId, active, search);
+            if (ids.isEmpty()) {
+                return new IngredientPageDTO(List.of(), null, false);
+            }
+        }
+
+        List<IngredientDTO> rows = ingredientRepository.findPage(
+                retailerId, active, ids, category, sort, descending, after, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            IngredientDTO last = rows.get(rows.size() - 1);
+            nextCursor = new IngredientCursor(sort, descending, sortValue(sort, last), last.getId()).encode();
+        }
+        stockShards.addShardQuantities(rows);
+        return new IngredientPageDTO(rows, nextCursor, hasMore);
+    }
+
+    private Object sortValue(IngredientSort sort, IngredientDTO ingredient) {
+        return switch (sort) {
+            case NAME -> ingredient.getName();
+            case PRICE -> ingredient.getPrice();
+            case QUANTITY -> ingredient.getQuantity();
+            case EXPIRY_DATE -> ingredient.getExpiryDate();
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Ingredient name search with similarity ranking and typo tolerance. On PostgreSQL this uses
+ * the pg_trgm GIN index on lower(name); other databases (H2) are served from an in-process
+ * trigram index per retailer. A search term that names a category also matches that category
+ * exactly. Results are ingredient ids, best match first.
+ */
+@Service
+public class IngredientSearchService {
+
+    private static final String TRIGRAM_SEARCH_SQL =
+            "SELECT id FROM ingredients " +
+                    "WHERE retailer_id = ? AND active = ? " +
+                    "AND (lower(name) LIKE ? ESCAPE '\\' OR ? <% lower(name) OR category = ?) " +
+                    "ORDER BY (lower(name) LIKE ? ESCAPE '\\') DESC, word_similarity(?, lower(name)) DESC, id " +
+                    "LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IngredientNgramIndex ngramIndex;
+    private final int maxResults;
+    private volatile Boolean postgres;
+
+    public IngredientSearchService(JdbcTemplate jdbcTemplate,
+                                   IngredientNgramIndex ngramIndex,
+                                   @Value("${app.inventory.search.max-results:500}") int maxResults) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ngramIndex = ngramIndex;
+        this.maxResults = maxResults;
+    }
+
+    public List<Long> search(Long retailerId, boolean active, String term) {
+        String normalized = term.trim().toLowerCase(Locale.ROOT);
+        IngredientCategory category = categoryNamed(normalized);
+        if (isPostgres()) {
+            String pattern = "%" + escapeLike(normalized) + "%";
+            return jdbcTemplate.queryForList(TRIGRAM_SEARCH_SQL, Long.class,
+                    retailerId, active, pattern, normalized, category != null ? category.name() : null,
+                    pattern, normalized, maxResults);
+        }
+        return ngramIndex.search(retailerId, active, normalized, category, maxResults);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientsChanged(IngredientsChangedEvent event) {
+        ngramIndex.evict(event.retailerId());
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.isWrapperFor(PGConnection.class));
+            postgres = result;
+        }
+        return result;
+    }
+
+    private static IngredientCategory categoryNamed(String term) {
+        for (IngredientCategory category : IngredientCategory.values()) {
+            if (category.name().equalsIgnoreCase(term)) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,19 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import java.util.Set;
+
+/**
+ * Published whenever a retailer's ingredients are created, changed, deleted, restored or imported.
+ * {@code ingredientIds} names the changed ingredients, or is {@code null} when any ingredient of
+ * the retailer may have changed.
+ */
+public record IngredientsChangedEvent(Long retailerId, Set<Long> ingredientIds) {
+
+    public IngredientsChangedEvent(Long retailerId) {
+        this(retailerId, null);
+    }
+
+    public boolean isRetailerWide() {
+        return ingredientIds == null;
+    }
+}
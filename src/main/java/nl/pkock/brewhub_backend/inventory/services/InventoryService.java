@@ -1,38 +1,67 @@
 package nl.pkock.brewhub_backend.inventory.services;
 
-import com.opencsv.bean.CsvToBean;
-import com.opencsv.bean.CsvToBeanBuilder;
-import com.opencsv.bean.StatefulBeanToCsv;
-import com.opencsv.bean.StatefulBeanToCsvBuilder;
+import com.opencsv.CSVWriter;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import nl.pkock.brewhub_backend.inventory.dto.*;
+import nl.pkock.brewhub_backend.inventory.models.ImportMode;
 import nl.pkock.brewhub_backend.inventory.models.Ingredient;
 import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+import nl.pkock.brewhub_backend.inventory.models.IngredientSort;
+import nl.pkock.brewhub_backend.inventory.models.StockMovementReason;
 import nl.pkock.brewhub_backend.auth.models.User;
 import nl.pkock.brewhub_backend.inventory.repository.IngredientRepository;
-import nl.pkock.brewhub_backend.auth.repository.UserRepository;
+import nl.pkock.brewhub_backend.auth.security.CurrentUser;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.StringWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class InventoryService {
+    // Same column order as the opencsv bean export, so exported files can be imported again
+    private static final String[] EXPORT_HEADER = {
+            "CATEGORY", "EXPIRY DATE", "LOW STOCK THRESHOLD", "NAME", "PRICE", "QUANTITY", "UNIT"
+    };
+
+    private static final int MAX_EXPIRING_DAYS = 365;
+    private static final int MAX_MOVEMENTS = 200;
+
     private final IngredientRepository ingredientRepository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
+    private final EntityManager entityManager;
+    private final IngredientBulkLoader ingredientBulkLoader;
+    private final IngredientCsvReader ingredientCsvReader;
+    private final IngredientPager ingredientPager;
+    private final IngredientSearchService ingredientSearchService;
+    private final StockLedger stockLedger;
+    private final StockShards stockShards;
+    private final ApplicationEventPublisher eventPublisher;
 
     private void copyIngredientProperties(Ingredient source, IngredientDTO target) {
         target.setName(source.getName());
         target.setCategory(source.getCategory());
-        target.setQuantity(source.getQuantity());
+        target.setQuantity(source.getTotalQuantity());
         target.setUnit(source.getUnit());
         target.setPrice(source.getPrice());
         target.setExpiryDate(source.getExpiryDate());
@@ -53,7 +82,8 @@ public class InventoryService {
         IngredientDTO dto = new IngredientDTO();
         dto.setId(ingredient.getId());
         copyIngredientProperties(ingredient, dto);
-        dto.setLowStock(ingredient.getQuantity().compareTo(ingredient.getLowStockThreshold()) <= 0);
+        dto.setLowStock(ingredient.getLowStock());
+        dto.setExpired(ingredient.getExpired());
         return dto;
     }
 
@@ -68,7 +98,7 @@ public class InventoryService {
         List<Ingredient> ingredients;
 
         if (search != null && !search.trim().isEmpty()) {
-            ingredients = ingredientRepository.searchIngredients(retailerId, search.trim());
+            ingredients = searchIngredients(retailerId, true, search);
         } else if (category != null) {
             ingredients = ingredientRepository.findByRetailerIdAndCategoryAndActiveTrue(retailerId, category);
         } else {
@@ -78,15 +108,43 @@ public class InventoryService {
         return convertToDTOList(ingredients);
     }
 
+    private List<Ingredient> searchIngredients(Long retailerId, boolean active, String search) {
+        List<Long> ids = ingredientSearchService.search(retailerId, active, search);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            rank.put(ids.get(i), i);
+        }
+        List<Ingredient> ingredients = new ArrayList<>(
+                ingredientRepository.findByRetailerIdAndActiveAndIdIn(retailerId, active, ids));
+        ingredients.sort(Comparator.comparing(ingredient -> rank.get(ingredient.getId())));
+        return ingredients;
+    }
+
+    @Transactional(readOnly = true)
+    public IngredientPageDTO getIngredientPage(Long retailerId, String search, IngredientCategory category,
+                                               IngredientSort sort, boolean descending, String cursor, int size) {
+        return ingredientPager.page(retailerId, true, search, category, sort, descending, cursor, size);
+    }
+
     @Transactional(readOnly = true)
     public List<IngredientDTO> getLowStockIngredients(Long retailerId) {
         return convertToDTOList(ingredientRepository.findLowStockIngredients(retailerId));
     }
 
+    @Transactional(readOnly = true)
+    public List<IngredientDTO> getExpiringIngredients(Long retailerId, int days) {
+        if (days < 0 || days > MAX_EXPIRING_DAYS) {
+            throw new RuntimeException("Days must be between 0 and " + MAX_EXPIRING_DAYS);
+        }
+        return convertToDTOList(ingredientRepository.findExpiringIngredients(retailerId, LocalDate.now().plusDays(days)));
+    }
+
     @Transactional
     public IngredientDTO createIngredient(Long retailerId, CreateIngredientRequest request) {
-        User retailer = userRepository.findById(retailerId)
-                .orElseThrow(() -> new RuntimeException("Retailer not found"));
+        User retailer = currentUser.reference(retailerId);
 
         Ingredient ingredient = new Ingredient();
         copyIngredientProperties(request, ingredient);
@@ -94,13 +152,21 @@ public class InventoryService {
         ingredient.setActive(true);
 
         Ingredient savedIngredient = ingredientRepository.save(ingredient);
+        stockLedger.record(savedIngredient.getId(), retailerId, savedIngredient.getQuantity(), StockMovementReason.ADJUSTMENT);
+        eventPublisher.publishEvent(new IngredientsChangedEvent(retailerId, Set.of(savedIngredient.getId())));
         return convertToDTO(savedIngredient);
     }
 
     @Transactional
     public IngredientDTO updateIngredient(Long retailerId, Long id, UpdateIngredientRequest request) {
-        Ingredient ingredient = verifyIngredientAccess(retailerId, id);
+        Ingredient ingredient = lockIngredientForWrite(retailerId, id);
+        BigDecimal previousQuantity = ingredient.getTotalQuantity();
         updateIngredientFields(ingredient, request);
+        stockLedger.record(id, retailerId, ingredient.getTotalQuantity().subtract(previousQuantity), StockMovementReason.ADJUSTMENT);
+        if (request.getQuantity() != null && ingredient.getShardCount() > 0) {
+            stockShards.drain(List.of(id));
+        }
+        eventPublisher.publishEvent(new IngredientsChangedEvent(retailerId, Set.of(id)));
         return convertToDTO(ingredientRepository.save(ingredient));
     }
 
@@ -116,18 +182,44 @@ public class InventoryService {
 
     @Transactional
     public void deleteIngredient(Long retailerId, Long id) {
-        Ingredient ingredient = verifyIngredientAccess(retailerId, id);
+        Ingredient ingredient = lockIngredientForWrite(retailerId, id);
         ingredient.setActive(false);
         ingredientRepository.save(ingredient);
+        eventPublisher.publishEvent(new IngredientsChangedEvent(retailerId, Set.of(id)));
     }
 
     @Transactional
     public IngredientDTO restoreIngredient(Long retailerId, Long id) {
-        Ingredient ingredient = verifyIngredientAccess(retailerId, id);
+        Ingredient ingredient = lockIngredientForWrite(retailerId, id);
         ingredient.setActive(true);
+        eventPublisher.publishEvent(new IngredientsChangedEvent(retailerId, Set.of(id)));
         return convertToDTO(ingredientRepository.save(ingredient));
     }
 
+    @Transactional
+    public IngredientDTO setHighDemand(Long retailerId, Long id, int shards) {
+        Ingredient ingredient = verifyIngredientAccess(retailerId, id);
+        stockShards.configure(id, shards);
+        entityManager.refresh(ingredient);
+        return convertToDTO(ingredient);
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockMovementDTO> getStockMovements(Long retailerId, Long id, int limit) {
+        verifyIngredientAccess(retailerId, id);
+        if (limit < 1 || limit > MAX_MOVEMENTS) {
+            throw new RuntimeException("Limit must be between 1 and " + MAX_MOVEMENTS);
+        }
+        return stockLedger.recentMovements(id, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public StockLevelDTO getStockLevel(Long retailerId, Long id, LocalDateTime at) {
+        verifyIngredientAccess(retailerId, id);
+        LocalDateTime until = at != null ? at : LocalDateTime.now();
+        return new StockLevelDTO(id, stockLedger.quantityAt(id, until), until);
+    }
+
     private Ingredient verifyIngredientAccess(Long retailerId, Long ingredientId) {
         Ingredient ingredient = ingredientRepository.findById(ingredientId)
                 .orElseThrow(() -> new RuntimeException("Ingredient not found"));
@@ -139,111 +231,121 @@ public class InventoryService {
         return ingredient;
     }
 
+    /**
+     * Loads an ingredient whose entity will be saved. Saving writes every column, including
+     * quantity and low_stock, so its shards and then its row are locked first: orders and
+     * rebalances cannot change the stock between this read and the write.
+     */
+    private Ingredient lockIngredientForWrite(Long retailerId, Long ingredientId) {
+        stockShards.lock(retailerId, List.of(ingredientId));
+        Ingredient ingredient = ingredientRepository.findByIdForUpdate(ingredientId)
+                .orElseThrow(() -> new RuntimeException("Ingredient not found"));
+
+        if (!ingredient.getRetailer().getId().equals(retailerId)) {
+            throw new RuntimeException("Unauthorized access to ingredient");
+        }
+
+        return ingredient;
+    }
+
     @Transactional(readOnly = true)
-    public String exportInventory(Long retailerId) {
-        try {
-            List<Ingredient> ingredients = ingredientRepository.findByRetailerIdAndActiveTrue(retailerId);
-            List<IngredientCsvDTO> csvDtos = mapToCsvDTOs(ingredients);
-
-            StringWriter writer = new StringWriter();
-            StatefulBeanToCsv<IngredientCsvDTO> beanToCsv = new StatefulBeanToCsvBuilder<IngredientCsvDTO>(writer)
-                    .withQuotechar('"')
-                    .withSeparator(',')
-                    .build();
-
-            beanToCsv.write(csvDtos);
-            return writer.toString();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to export inventory: " + e.getMessage());
+    public void exportInventory(Long retailerId, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        CSVWriter csvWriter = new CSVWriter(writer);
+        csvWriter.writeNext(EXPORT_HEADER);
+
+        String[] row = new String[EXPORT_HEADER.length];
+        try (Stream<Ingredient> ingredients = ingredientRepository.streamActiveByRetailerId(retailerId)) {
+            Iterator<Ingredient> iterator = ingredients.iterator();
+            while (iterator.hasNext()) {
+                Ingredient ingredient = iterator.next();
+                row[0] = ingredient.getCategory().name();
+                row[1] = ingredient.getExpiryDate() != null ? ingredient.getExpiryDate().toString() : "";
+                row[2] = toCsvValue(ingredient.getLowStockThreshold());
+                row[3] = ingredient.getName();
+                row[4] = toCsvValue(ingredient.getPrice());
+                row[5] = toCsvValue(ingredient.getTotalQuantity());
+                row[6] = ingredient.getUnit();
+                csvWriter.writeNext(row);
+                entityManager.detach(ingredient);
+            }
         }
+        csvWriter.flush();
     }
 
-    private List<IngredientCsvDTO> mapToCsvDTOs(List<Ingredient> ingredients) {
-        return ingredients.stream()
-                .map(ingredient -> {
-                    IngredientCsvDTO dto = new IngredientCsvDTO();
-                    dto.setName(ingredient.getName());
-                    dto.setCategory(ingredient.getCategory().name());
-                    dto.setQuantity(ingredient.getQuantity());
-                    dto.setUnit(ingredient.getUnit());
-                    dto.setPrice(ingredient.getPrice());
-                    dto.setExpiryDate(ingredient.getExpiryDate());
-                    dto.setLowStockThreshold(ingredient.getLowStockThreshold());
-                    return dto;
-                })
-                .collect(Collectors.toList());
+    private String toCsvValue(BigDecimal value) {
+        return value != null ? value.toString() : "";
     }
 
     @Transactional
-    public Map<String, Object> importInventory(Long retailerId, MultipartFile file) {
+    public Map<String, Object> importInventory(Long retailerId, MultipartFile file, ImportMode importMode) {
         if (file.isEmpty()) {
             throw new RuntimeException("Please select a file to import");
         }
 
-        try {
-            User retailer = userRepository.findById(retailerId)
-                    .orElseThrow(() -> new RuntimeException("Retailer not found"));
-
-            List<Ingredient> importedIngredients = new ArrayList<>();
+        long startedAt = System.nanoTime();
+        IngredientMerge merge = importMode == ImportMode.MERGE ? ingredientBulkLoader.beginMerge(retailerId) : null;
+        try (IngredientBulkLoader.Session session = ingredientBulkLoader.open(retailerId)) {
+            User retailer = currentUser.reference(retailerId);
             List<String> errors = new ArrayList<>();
 
-            processCSVFile(file, retailer, importedIngredients, errors);
+            ingredientCsvReader.read(file.getInputStream(), retailer, new IngredientCsvReader.RowHandler() {
+                @Override
+                public void onRow(int rowNumber, Ingredient ingredient) {
+                    try {
+                        // Rows are still planned after an error so every duplicate is reported,
+                        // but nothing more is buffered for an import that will be rejected
+                        if ((merge == null || merge.plan(rowNumber, ingredient) == IngredientMerge.Outcome.INSERT)
+                                && errors.isEmpty()) {
+                            session.add(ingredient);
+                        }
+                    } catch (RuntimeException e) {
+                        onError(rowNumber, e.getMessage());
+                    }
+                }
+
+                @Override
+                public void onError(int rowNumber, String message) {
+                    errors.add("Error in row " + rowNumber + ": " + message);
+                }
+            });
 
             if (!errors.isEmpty()) {
                 throw new RuntimeException(String.join(", ", errors));
             }
 
-            ingredientRepository.saveAll(importedIngredients);
+            int inserted = session.finish();
+            int updated = 0;
+            int unchanged = 0;
+            if (merge != null) {
+                merge.flushUpdates();
+                updated = merge.getUpdated();
+                unchanged = merge.getUnchanged();
+            }
+            int count = inserted + updated;
+            eventPublisher.publishEvent(new IngredientsChangedEvent(retailerId));
+            double seconds = Math.max((System.nanoTime() - startedAt) / 1_000_000_000.0, 0.001);
             return Map.of(
-                    "message", "Successfully imported " + importedIngredients.size() + " ingredients",
-                    "count", importedIngredients.size()
+                    "message", "Successfully imported " + count + " ingredients",
+                    "count", count,
+                    "inserted", inserted,
+                    "updated", updated,
+                    "unchanged", unchanged,
+                    "importMode", importMode,
+                    "mode", session.getMode(),
+                    "rowsPerSecond", Math.round((count + unchanged) / seconds)
             );
         } catch (Exception e) {
             throw new RuntimeException("Failed to import inventory: " + e.getMessage());
         }
     }
 
-    private void processCSVFile(MultipartFile file, User retailer, List<Ingredient> importedIngredients, List<String> errors) {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-            CsvToBean<IngredientCsvDTO> csvToBean = new CsvToBeanBuilder<IngredientCsvDTO>(reader)
-                    .withType(IngredientCsvDTO.class)
-                    .withIgnoreLeadingWhiteSpace(true)
-                    .build();
-
-            int rowNumber = 1;
-            for (IngredientCsvDTO csvDto : csvToBean) {
-                rowNumber++;
-                try {
-                    importedIngredients.add(createIngredientFromCsvDTO(csvDto, retailer));
-                } catch (Exception e) {
-                    errors.add("Error in row " + rowNumber + ": " + e.getMessage());
-                }
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Error processing CSV file: " + e.getMessage());
-        }
-    }
-
-    private Ingredient createIngredientFromCsvDTO(IngredientCsvDTO csvDto, User retailer) {
-        Ingredient ingredient = new Ingredient();
-        ingredient.setName(csvDto.getName());
-        ingredient.setCategory(IngredientCategory.valueOf(csvDto.getCategory().toUpperCase()));
-        ingredient.setQuantity(csvDto.getQuantity());
-        ingredient.setUnit(csvDto.getUnit());
-        ingredient.setPrice(csvDto.getPrice());
-        ingredient.setExpiryDate(csvDto.getExpiryDate());
-        ingredient.setLowStockThreshold(csvDto.getLowStockThreshold());
-        ingredient.setRetailer(retailer);
-        ingredient.setActive(true);
-        return ingredient;
-    }
-
     @Transactional(readOnly = true)
     public List<IngredientDTO> getDeletedIngredients(Long retailerId, String search, IngredientCategory category) {
         List<Ingredient> deletedIngredients;
 
         if (search != null && !search.trim().isEmpty()) {
-            deletedIngredients = ingredientRepository.searchDeletedIngredients(retailerId, search.trim());
+            deletedIngredients = searchIngredients(retailerId, false, search);
         } else if (category != null) {
             deletedIngredients = ingredientRepository.findByRetailerIdAndCategoryAndActiveFalse(retailerId, category);
         } else {
@@ -252,4 +354,10 @@ public class InventoryService {
 
         return convertToDTOList(deletedIngredients);
     }
+
+    @Transactional(readOnly = true)
+    public IngredientPageDTO getDeletedIngredientPage(Long retailerId, String search, IngredientCategory category,
+                                                      IngredientSort sort, boolean descending, String cursor, int size) {
+        return ingredientPager.page(retailerId, false, search, category, sort, descending, cursor, size);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+/**
+ * Published when an ingredient crosses into ({@code lowStock == true}) or out of low stock.
+ * Fired during the writing transaction; listeners that alert should use
+ * {@code @TransactionalEventListener} so rolled back changes are not reported.
+ */
+public record LowStockChangedEvent(Long retailerId, Long ingredientId, boolean lowStock) {
+}
@@ -0,0 +1,35 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import nl.pkock.brewhub_backend.inventory.models.Ingredient;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LowStockListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public LowStockListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostLoad
+    public void onLoad(Ingredient ingredient) {
+        ingredient.markLowStockPersisted();
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onWrite(Ingredient ingredient) {
+        boolean lowStock = ingredient.getLowStock();
+        Boolean previous = ingredient.getPersistedLowStock();
+        if (previous == null ? lowStock : previous != lowStock) {
+            eventPublisher.publishEvent(new LowStockChangedEvent(
+                    ingredient.getRetailer().getId(), ingredient.getId(), lowStock));
+        }
+        ingredient.markLowStockPersisted();
+    }
+}
@@ -0,0 +1,309 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nl.pkock.brewhub_backend.inventory.dto.PriceOfferDTO;
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * In-memory index of active, unexpired offers across retailers, keyed by category and
+ * normalized ingredient name. Each key holds parallel primitive arrays sorted by price, so a
+ * lookup is a hash probe plus a scan from the cheapest offer with no database access.
+ * Prices and quantities are stored as hundredths, matching the DECIMAL(10,2) columns.
+ * After a committed change only the changed ingredients are re-read, on a single background
+ * thread that owns all writes to the index. Changes committed by other instances are picked
+ * up by a periodic full rebuild, so offers may be stale for up to one rebuild interval.
+ */
+@Slf4j
+@Component
+public class PriceComparisonIndex {
+
+    private static final String LOAD_SQL =
+            "SELECT id, retailer_id, name, category, price, " + StockShards.TOTAL_QUANTITY_SQL + " AS quantity, unit " +
+                    "FROM ingredients " +
+                    "WHERE active = true AND expired = false";
+
+    private static final String LOAD_RETAILER_SQL = LOAD_SQL + " AND retailer_id = :retailerId";
+
+    private static final String LOAD_IDS_SQL = LOAD_SQL + " AND id IN (:ids)";
+
+    private static final int LOAD_CHUNK_SIZE = 500;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Map<String, Offers> offersByKey = new ConcurrentHashMap<>();
+    private final Map<String, Integer> unitCodes = new ConcurrentHashMap<>();
+    private final List<String> units = new CopyOnWriteArrayList<>();
+    private final ExecutorService updates;
+
+    // Only touched on the update thread
+    private final Map<Long, Placement> placements = new HashMap<>();
+
+    public PriceComparisonIndex(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.updates = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "price-comparison-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        submit(this::rebuild);
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.price-index.rebuild-ms:300000}",
+            initialDelayString = "${app.inventory.price-index.rebuild-ms:300000}")
+    public void scheduleRebuild() {
+        submit(this::rebuild);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientsChanged(IngredientsChangedEvent event) {
+        submit(() -> {
+            if (event.isRetailerWide()) {
+                reloadRetailer(event.retailerId());
+            } else {
+                reloadIngredients(event.ingredientIds());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        updates.shutdownNow();
+    }
+
+    void rebuild() {
+        List<Offer> loaded = new ArrayList<>();
+        jdbcTemplate.query(LOAD_SQL, collectInto(loaded));
+
+        Map<String, List<Offer>> byKey = new HashMap<>();
+        placements.clear();
+        for (Offer offer : loaded) {
+            byKey.computeIfAbsent(offer.key(), k -> new ArrayList<>()).add(offer);
+            placements.put(offer.ingredientId(), new Placement(offer.retailerId(), offer.key()));
+        }
+        byKey.forEach((key, list) -> offersByKey.put(key, Offers.of(list)));
+        offersByKey.keySet().retainAll(byKey.keySet());
+        log.info("Price comparison index built with {} ingredient keys", offersByKey.size());
+    }
+
+    void reloadRetailer(Long retailerId) {
+        List<Offer> loaded = new ArrayList<>();
+        jdbcTemplate.query(LOAD_RETAILER_SQL, new MapSqlParameterSource("retailerId", retailerId), collectInto(loaded));
+
+        Set<Long> ingredientIds = new HashSet<>();
+        placements.forEach((id, placement) -> {
+            if (placement.retailerId() == retailerId) {
+                ingredientIds.add(id);
+            }
+        });
+        apply(ingredientIds, loaded);
+    }
+
+    void reloadIngredients(Set<Long> ingredientIds) {
+        List<Long> ids = new ArrayList<>(ingredientIds);
+        List<Offer> loaded = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += LOAD_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + LOAD_CHUNK_SIZE, ids.size()));
+            jdbcTemplate.query(LOAD_IDS_SQL, new MapSqlParameterSource("ids", chunk), collectInto(loaded));
+        }
+        apply(ingredientIds, loaded);
+    }
+
+    /**
+     * Replaces the offers of the given ingredients with the loaded ones. An ingredient that was
+     * not loaded is no longer offered; one whose name or category changed moves to its new key.
+     */
+    private void apply(Set<Long> ingredientIds, List<Offer> loaded) {
+        Set<Long> replaced = new HashSet<>(ingredientIds);
+        Set<String> affected = new HashSet<>();
+        Map<String, List<Offer>> additions = new HashMap<>();
+        for (Offer offer : loaded) {
+            replaced.add(offer.ingredientId());
+            affected.add(offer.key());
+            additions.computeIfAbsent(offer.key(), k -> new ArrayList<>()).add(offer);
+        }
+        for (Long id : replaced) {
+            Placement previous = placements.remove(id);
+            if (previous != null) {
+                affected.add(previous.key());
+            }
+        }
+        for (Offer offer : loaded) {
+            placements.put(offer.ingredientId(), new Placement(offer.retailerId(), offer.key()));
+        }
+
+        for (String key : affected) {
+            Offers existing = offersByKey.getOrDefault(key, Offers.EMPTY);
+            Offers updated = existing.replacing(replaced, additions.getOrDefault(key, List.of()));
+            if (updated.size() == 0) {
+                offersByKey.remove(key);
+            } else {
+                offersByKey.put(key, updated);
+            }
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            updates.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.warn("Price comparison index update failed; the next rebuild repairs it", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Price comparison index is shut down, update dropped");
+        }
+    }
+
+    /**
+     * Cheapest offers for an ingredient with at least {@code minQuantity} in stock. Without a
+     * category every category is searched.
+     */
+    public List<PriceOfferDTO> lookup(String name, IngredientCategory category, BigDecimal minQuantity, int limit) {
+        long minHundredths = toHundredths(minQuantity);
+        List<PriceOfferDTO> result = new ArrayList<>();
+        for (IngredientCategory candidate : category != null ? List.of(category) : List.of(IngredientCategory.values())) {
+            Offers offers = offersByKey.get(key(candidate, name));
+            if (offers != null) {
+                offers.collect(candidate, minHundredths, limit, units, result);
+            }
+        }
+        if (category == null) {
+            result.sort(Comparator.comparing(PriceOfferDTO::getPrice).thenComparing(PriceOfferDTO::getRetailerId));
+            if (result.size() > limit) {
+                return new ArrayList<>(result.subList(0, limit));
+            }
+        }
+        return result;
+    }
+
+    private RowCallbackHandler collectInto(List<Offer> loaded) {
+        return rs -> loaded.add(new Offer(
+                key(IngredientCategory.valueOf(rs.getString("category")), rs.getString("name")),
+                rs.getLong("retailer_id"),
+                rs.getLong("id"),
+                toHundredths(rs.getBigDecimal("price")),
+                toHundredths(rs.getBigDecimal("quantity")),
+                unitCode(rs.getString("unit"))));
+    }
+
+    private int unitCode(String unit) {
+        return unitCodes.computeIfAbsent(unit.trim(), value -> {
+            units.add(value);
+            return units.size() - 1;
+        });
+    }
+
+    private static String key(IngredientCategory category, String name) {
+        return category.name() + ':' + IngredientMerge.normalize(name);
+    }
+
+    private static long toHundredths(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private record Offer(String key, long retailerId, long ingredientId, long price, long quantity, int unit) {
+    }
+
+    private record Placement(long retailerId, String key) {
+    }
+
+    /**
+     * Immutable, price-sorted parallel arrays; replaced as a whole on every change.
+     */
+    private static final class Offers {
+        private static final Offers EMPTY = new Offers(new long[0], new long[0], new long[0], new long[0], new int[0]);
+
+        private final long[] retailerIds;
+        private final long[] ingredientIds;
+        private final long[] prices;
+        private final long[] quantities;
+        private final int[] units;
+
+        private Offers(long[] retailerIds, long[] ingredientIds, long[] prices, long[] quantities, int[] units) {
+            this.retailerIds = retailerIds;
+            this.ingredientIds = ingredientIds;
+            this.prices = prices;
+            this.quantities = quantities;
+            this.units = units;
+        }
+
+        static Offers of(List<Offer> offers) {
+            Offer[] sorted = offers.toArray(new Offer[0]);
+            Arrays.sort(sorted, Comparator.comparingLong(Offer::price)
+                    .thenComparingLong(Offer::retailerId)
+                    .thenComparingLong(Offer::ingredientId));
+            int size = sorted.length;
+            long[] retailerIds = new long[size];
+            long[] ingredientIds = new long[size];
+            long[] prices = new long[size];
+            long[] quantities = new long[size];
+            int[] units = new int[size];
+            for (int i = 0; i < size; i++) {
+                retailerIds[i] = sorted[i].retailerId();
+                ingredientIds[i] = sorted[i].ingredientId();
+                prices[i] = sorted[i].price();
+                quantities[i] = sorted[i].quantity();
+                units[i] = sorted[i].unit();
+            }
+            return new Offers(retailerIds, ingredientIds, prices, quantities, units);
+        }
+
+        int size() {
+            return prices.length;
+        }
+
+        Offers replacing(Set<Long> ingredientIdsToReplace, List<Offer> replacement) {
+            List<Offer> offers = new ArrayList<>(size() + replacement.size());
+            for (int i = 0; i < size(); i++) {
+                if (!ingredientIdsToReplace.contains(ingredientIds[i])) {
+                    offers.add(new Offer(null, retailerIds[i], ingredientIds[i], prices[i], quantities[i], units[i]));
+                }
+            }
+            offers.addAll(replacement);
+            return of(offers);
+        }
+
+        void collect(IngredientCategory category, long minQuantity, int limit, List<String> unitNames,
+                     List<PriceOfferDTO> target) {
+            int added = 0;
+            for (int i = 0; i < size() && added < limit; i++) {
+                if (quantities[i] >= minQuantity) {
+                    target.add(new PriceOfferDTO(retailerIds[i], ingredientIds[i], category,
+                            BigDecimal.valueOf(prices[i], 2), BigDecimal.valueOf(quantities[i], 2),
+                            unitNames.get(units[i])));
+                    added++;
+                }
+            }
+        }
+    }
+}
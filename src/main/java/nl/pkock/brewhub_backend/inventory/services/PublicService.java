@@ -3,26 +3,36 @@ package nl.pkock.brewhub_backend.inventory.services;
 import lombok.RequiredArgsConstructor;
 import nl.pkock.brewhub_backend.inventory.dto.RetailerDTO;
 import nl.pkock.brewhub_backend.inventory.dto.IngredientDTO;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientPageDTO;
+import nl.pkock.brewhub_backend.inventory.dto.PriceOfferDTO;
 import nl.pkock.brewhub_backend.auth.models.User;
 import nl.pkock.brewhub_backend.auth.models.UserRole;
 import nl.pkock.brewhub_backend.inventory.models.Ingredient;
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+import nl.pkock.brewhub_backend.inventory.models.IngredientSort;
 import nl.pkock.brewhub_backend.inventory.repository.IngredientRepository;
 import nl.pkock.brewhub_backend.auth.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PublicService {
+    private static final int MAX_OFFERS = 100;
+
     private final UserRepository userRepository;
     private final IngredientRepository ingredientRepository;
+    private final IngredientPager ingredientPager;
+    private final RetailerCatalogCache retailerCatalogCache;
+    private final PriceComparisonIndex priceComparisonIndex;
 
     @Transactional(readOnly = true)
     public List<RetailerDTO> getRetailers() {
-        List<User> retailers = userRepository.findByRolesContaining(UserRole.RETAILER);
+        List<User> retailers = userRepository.findByRoleMaskIn(UserRole.RETAILER.masksContaining());
         return retailers.stream()
                 .map(retailer -> new RetailerDTO(
                         retailer.getId(),
@@ -42,13 +52,31 @@ public class PublicService {
                         ingredient.getId(),
                         ingredient.getName(),
                         ingredient.getCategory(),
-                        ingredient.getQuantity(),
+                        ingredient.getTotalQuantity(),
                         ingredient.getUnit(),
                         ingredient.getPrice(),
                         ingredient.getExpiryDate(),
                         ingredient.getLowStockThreshold(),
-                        ingredient.getQuantity().compareTo(ingredient.getLowStockThreshold()) <= 0
+                        ingredient.getLowStock(),
+                        ingredient.getExpired()
                 ))
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    public RetailerCatalogCache.Catalog getRetailerCatalog(Long retailerId) {
+        return retailerCatalogCache.get(retailerId, () -> getRetailerIngredients(retailerId));
+    }
+
+    @Transactional(readOnly = true)
+    public IngredientPageDTO getRetailerIngredientPage(Long retailerId, IngredientSort sort, boolean descending,
+                                                       String cursor, int size) {
+        return ingredientPager.page(retailerId, true, null, null, sort, descending, cursor, size);
+    }
+
+    public List<PriceOfferDTO> comparePrices(String name, IngredientCategory category, BigDecimal minQuantity, int limit) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new RuntimeException("Ingredient name is required");
+        }
+        return priceComparisonIndex.lookup(name, category, minQuantity, Math.max(1, Math.min(limit, MAX_OFFERS)));
+    }
+}
@@ -0,0 +1,110 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Serialized public catalogs per retailer. Concurrent misses wait for the one rebuild in
+ * flight; entries are dropped after any transaction that changes the retailer's ingredients
+ * commits. That event is local to this instance, so entries also expire after
+ * {@code app.inventory.catalog.max-age} to pick up changes made on other instances.
+ * Empty catalogs are not kept, so unknown retailer ids do not fill the cache.
+ */
+@Component
+public class RetailerCatalogCache {
+
+    public record Catalog(byte[] json, String etag) {
+    }
+
+    private record Entry(CompletableFuture<Catalog> catalog, long loadedAt) {
+        boolean isExpired(long now, long maxAgeNanos) {
+            return catalog.isDone() && now - loadedAt >= maxAgeNanos;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Map<Long, Entry> catalogs = new ConcurrentHashMap<>();
+    private final long maxAgeNanos;
+    private final Counter hits;
+    private final Counter misses;
+
+    public RetailerCatalogCache(ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.inventory.catalog.max-age:PT1M}") Duration maxAge) {
+        this.objectMapper = objectMapper;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.hits = Counter.builder("brewhub.inventory.catalog.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("brewhub.inventory.catalog.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    public Catalog get(Long retailerId, Supplier<List<IngredientDTO>> loader) {
+        long now = System.nanoTime();
+        Entry created = new Entry(new CompletableFuture<>(), now);
+        Entry entry = catalogs.compute(retailerId, (id, current) ->
+                current == null || current.isExpired(now, maxAgeNanos) ? created : current);
+        if (entry != created) {
+            hits.increment();
+            try {
+                return entry.catalog().join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        misses.increment();
+        try {
+            List<IngredientDTO> ingredients = loader.get();
+            Catalog catalog = serialize(ingredients);
+            created.catalog().complete(catalog);
+            if (ingredients.isEmpty()) {
+                catalogs.remove(retailerId, created);
+            }
+            return catalog;
+        } catch (RuntimeException e) {
+            catalogs.remove(retailerId, created);
+            created.catalog().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientsChanged(IngredientsChangedEvent event) {
+        catalogs.remove(event.retailerId());
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        catalogs.values().removeIf(entry -> entry.isExpired(now, maxAgeNanos));
+    }
+
+    private Catalog serialize(List<IngredientDTO> ingredients) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(ingredients);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            String etag = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+            return new Catalog(json, etag);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to build retailer catalog: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import nl.pkock.brewhub_backend.inventory.dto.StockMovementDTO;
+import nl.pkock.brewhub_backend.inventory.models.StockMovementReason;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Append-only history of stock changes. Every write path that changes
+ * {@code ingredients.quantity} records the delta here in the same transaction, so the column
+ * stays the fast current value while any earlier stock level can be rebuilt from the latest
+ * {@link StockSnapshotter snapshot} plus the movements it has not folded. A movement is
+ * dated when it is recorded, not when it commits; {@link #quantityAt} counts every committed
+ * movement dated up to the requested time, even one that committed after a snapshot covering
+ * its date was taken.
+ */
+@Component
+public class StockLedger {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO stock_movements (ingredient_id, retailer_id, delta, reason, order_id, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Rows inserted by a bulk import are found by id; ingredients created concurrently through
+    // the API already carry their own opening movement and are skipped
+    private static final String RECORD_IMPORTED_SQL =
+            "INSERT INTO stock_movements (ingredient_id, retailer_id, delta, reason, created_at) " +
+                    "SELECT i.id, i.retailer_id, i.quantity, 'IMPORT', ? FROM ingredients i " +
+                    "WHERE i.retailer_id = ? AND i.id > ? AND i.quantity <> 0 " +
+                    "AND NOT EXISTS (SELECT 1 FROM stock_movements m WHERE m.ingredient_id = i.id)";
+
+    private static final String MAX_INGREDIENT_ID_SQL =
+            "SELECT COALESCE(MAX(id), 0) FROM ingredients";
+
+    private static final String LATEST_SNAPSHOT_SQL =
+            "SELECT quantity, taken_at FROM stock_snapshots WHERE ingredient_id = ? AND taken_at <= ? " +
+                    "ORDER BY taken_at DESC LIMIT 1";
+
+    // Movements the snapshot did not fold: dated after it, or committed after it was taken
+    private static final String SUM_UNFOLDED_SQL =
+            "SELECT COALESCE(SUM(delta), 0) FROM stock_movements " +
+                    "WHERE ingredient_id = ? AND created_at <= ? AND (folded_at IS NULL OR folded_at > ?)";
+
+    private static final String SUM_ALL_SQL =
+            "SELECT COALESCE(SUM(delta), 0) FROM stock_movements WHERE ingredient_id = ? AND created_at <= ?";
+
+    private static final String RECENT_SQL =
+            "SELECT id, delta, reason, order_id, created_at FROM stock_movements WHERE ingredient_id = ? " +
+                    "ORDER BY created_at DESC, id DESC LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockLedger(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record Movement(Long ingredientId, Long retailerId, BigDecimal delta, StockMovementReason reason, Long orderId) {
+    }
+
+    public void record(Long ingredientId, Long retailerId, BigDecimal delta, StockMovementReason reason) {
+        record(List.of(new Movement(ingredientId, retailerId, delta, reason, null)));
+    }
+
+    /**
+     * Appends the given movements as one JDBC batch. Zero deltas are dropped.
+     */
+    public void record(Collection<Movement> movements) {
+        Timestamp now = Timestamp.valueOf(now());
+        List<Object[]> batch = new ArrayList<>(movements.size());
+        for (Movement movement : movements) {
+            if (movement.delta().signum() != 0) {
+                batch.add(new Object[]{
+                        movement.ingredientId(),
+                        movement.retailerId(),
+                        movement.delta(),
+                        movement.reason().name(),
+                        movement.orderId(),
+                        now
+                });
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        }
+    }
+
+    /**
+     * Highest ingredient id before a bulk import starts; pass it to {@link #recordImported}.
+     */
+    long ingredientWatermark() {
+        Long max = jdbcTemplate.queryForObject(MAX_INGREDIENT_ID_SQL, Long.class);
+        return max != null ? max : 0;
+    }
+
+    /**
+     * Records an opening movement for every ingredient of the retailer inserted after {@code watermark}.
+     */
+    int recordImported(Long retailerId, long watermark) {
+        return jdbcTemplate.update(RECORD_IMPORTED_SQL, Timestamp.valueOf(now()), retailerId, watermark);
+    }
+
+    public BigDecimal quantityAt(Long ingredientId, LocalDateTime at) {
+        Timestamp until = Timestamp.valueOf(at);
+        List<Object[]> snapshot = jdbcTemplate.query(LATEST_SNAPSHOT_SQL,
+                (rs, rowNum) -> new Object[]{rs.getBigDecimal("quantity"), rs.getTimestamp("taken_at")},
+                ingredientId, until);
+        if (snapshot.isEmpty()) {
+            return jdbcTemplate.queryForObject(SUM_ALL_SQL, BigDecimal.class, ingredientId, until);
+        }
+        BigDecimal base = (BigDecimal) snapshot.get(0)[0];
+        return base.add(jdbcTemplate.queryForObject(SUM_UNFOLDED_SQL, BigDecimal.class,
+                ingredientId, until, snapshot.get(0)[1]));
+    }
+
+    public List<StockMovementDTO> recentMovements(Long ingredientId, int limit) {
+        return jdbcTemplate.query(RECENT_SQL, (rs, rowNum) -> new StockMovementDTO(
+                rs.getLong("id"),
+                rs.getBigDecimal("delta"),
+                StockMovementReason.valueOf(rs.getString("reason")),
+                rs.getObject("order_id", Long.class),
+                rs.getTimestamp("created_at").toLocalDateTime()), ingredientId, limit);
+    }
+
+    // Both PostgreSQL and H2 store microseconds; truncating keeps reads equal to what was written
+    static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
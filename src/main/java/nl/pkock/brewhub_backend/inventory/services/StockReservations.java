@@ -0,0 +1,65 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Reserves and returns stock of unsharded ingredients for a whole order as one JDBC batch.
+ * The statements run in ingredient id order, so concurrent orders lock rows in the same
+ * sequence.
+ */
+@Component
+public class StockReservations {
+
+    // Conditional decrement: matches nothing when stock is short, so concurrent orders cannot oversell
+    private static final String RESERVE_SQL =
+            "UPDATE ingredients SET quantity = quantity - ?, " +
+                    "low_stock = CASE WHEN quantity - ? <= low_stock_threshold THEN true ELSE false END " +
+                    "WHERE id = ? AND active = true AND expired = false AND quantity >= ?";
+
+    private static final String RELEASE_SQL =
+            "UPDATE ingredients SET quantity = quantity + ?, " +
+                    "low_stock = CASE WHEN quantity + ? <= low_stock_threshold THEN true ELSE false END " +
+                    "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockReservations(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Takes the given quantity of each ingredient. Returns the ingredients that could not be
+     * covered; when it is not empty the caller must roll back.
+     */
+    public List<Long> reserve(SortedMap<Long, BigDecimal> quantities) {
+        List<Long> ids = new ArrayList<>(quantities.keySet());
+        List<Object[]> args = new ArrayList<>(ids.size());
+        quantities.forEach((id, quantity) -> args.add(new Object[]{quantity, quantity, id, quantity}));
+
+        List<Long> shortIds = new ArrayList<>();
+        int[] counts = args.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(RESERVE_SQL, args);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                shortIds.add(ids.get(i));
+            }
+        }
+        return shortIds;
+    }
+
+    public void release(SortedMap<Long, BigDecimal> quantities) {
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, BigDecimal> entry : quantities.entrySet()) {
+            args.add(new Object[]{entry.getValue(), entry.getValue(), entry.getKey()});
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(RELEASE_SQL, args);
+        }
+    }
+}
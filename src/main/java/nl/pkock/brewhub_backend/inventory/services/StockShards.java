@@ -0,0 +1,344 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import nl.pkock.brewhub_backend.inventory.dto.IngredientDTO;
+import nl.pkock.brewhub_backend.inventory.models.Ingredient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Sharded stock for high-demand ingredients. The stock of such an ingredient is split over
+ * {@code shard_count} rows in {@code ingredient_stock_shards}; {@code ingredients.quantity}
+ * keeps the remainder (the pool) and the total is always pool plus shards.
+ * <p>
+ * An order claims from a few random shards with conditional decrements and never touches the
+ * ingredient row. Each probe runs in a savepoint that is rolled back when it misses: a
+ * decrement that waited for a shard and then failed its recheck would otherwise keep the
+ * shard locked. When those shards cannot cover it, the order locks all shards and then the
+ * ingredient row, takes the quantity from the combined stock and spreads the rest evenly
+ * again. Every writer locks shards before the ingredient row: an order that already claimed
+ * a shard still needs a key-share lock on the row when it inserts its order items.
+ */
+@Component
+public class StockShards {
+
+    /**
+     * Total stock of the {@code ingredients} row in scope, for queries that read the table directly.
+     */
+    public static final String TOTAL_QUANTITY_SQL =
+            "(quantity + CASE WHEN shard_count > 0 THEN (SELECT COALESCE(SUM(s.quantity), 0) " +
+                    "FROM ingredient_stock_shards s WHERE s.ingredient_id = ingredients.id) ELSE 0 END)";
+
+    private static final int MAX_PROBES = 3;
+
+    private static final String CLAIM_SQL =
+            "UPDATE ingredient_stock_shards SET quantity = quantity - ? " +
+                    "WHERE ingredient_id = ? AND shard = ? AND quantity >= ?";
+
+    private static final String RETURN_SQL =
+            "UPDATE ingredient_stock_shards SET quantity = quantity + ? WHERE ingredient_id = ? AND shard = ?";
+
+    private static final String RETURN_TO_POOL_SQL =
+            "UPDATE ingredients SET quantity = quantity + ? WHERE id = ?";
+
+    private static final String LOCK_INGREDIENT_SQL =
+            "SELECT quantity, low_stock_threshold, active, expired FROM ingredients WHERE id = ? FOR UPDATE";
+
+    private static final String LOCK_SHARDS_SQL =
+            "SELECT shard, quantity FROM ingredient_stock_shards WHERE ingredient_id = ? ORDER BY shard FOR UPDATE";
+
+    private static final String UPDATE_SHARD_SQL =
+            "UPDATE ingredient_stock_shards SET quantity = ? WHERE ingredient_id = ? AND shard = ?";
+
+    private static final String INSERT_SHARD_SQL =
+            "INSERT INTO ingredient_stock_shards (ingredient_id, shard, quantity) VALUES (?, ?, ?)";
+
+    private static final String DELETE_SHARDS_SQL =
+            "DELETE FROM ingredient_stock_shards WHERE ingredient_id = ?";
+
+    private static final String UPDATE_POOL_SQL =
+            "UPDATE ingredients SET quantity = ?, low_stock = ? WHERE id = ?";
+
+    private static final String UPDATE_SHARD_COUNT_SQL =
+            "UPDATE ingredients SET quantity = ?, shard_count = ? WHERE id = ?";
+
+    private static final String LOCK_ALL_SQL =
+            "SELECT id FROM ingredient_stock_shards WHERE ingredient_id IN " +
+                    "(SELECT id FROM ingredients WHERE id IN (:ids) AND retailer_id = :retailerId) " +
+                    "ORDER BY ingredient_id, shard FOR UPDATE";
+
+    private static final String LOCK_RETAILER_SQL =
+            "SELECT id FROM ingredient_stock_shards WHERE ingredient_id IN " +
+                    "(SELECT id FROM ingredients WHERE retailer_id = :retailerId) " +
+                    "ORDER BY ingredient_id, shard FOR UPDATE";
+
+    private static final String DRAIN_SQL =
+            "UPDATE ingredient_stock_shards SET quantity = 0 WHERE ingredient_id IN (:ids) AND quantity <> 0";
+
+    private static final String TOTAL_SQL =
+            "SELECT " + TOTAL_QUANTITY_SQL + " FROM ingredients WHERE id = ?";
+
+    private static final String TOTALS_SQL =
+            "SELECT id, " + TOTAL_QUANTITY_SQL + " AS quantity FROM ingredients WHERE id IN (:ids)";
+
+    private static final String SHARD_TOTALS_SQL =
+            "SELECT ingredient_id, SUM(quantity) AS quantity FROM ingredient_stock_shards " +
+                    "WHERE ingredient_id IN (:ids) GROUP BY ingredient_id";
+
+    private static final String REFRESH_LOW_STOCK_SQL =
+            "UPDATE ingredients SET low_stock = CASE WHEN " + TOTAL_QUANTITY_SQL + " <= low_stock_threshold " +
+                    "THEN true ELSE false END WHERE id = ? AND shard_count > 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate refreshTemplate;
+    private final int maxShards;
+
+    public StockShards(JdbcTemplate jdbcTemplate,
+                       NamedParameterJdbcTemplate namedJdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${app.inventory.shards.max:64}") int maxShards) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.refreshTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.refreshTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxShards = maxShards;
+    }
+
+    /**
+     * Takes {@code quantity} from a high-demand ingredient. Returns false when the ingredient
+     * is inactive, expired or does not have enough stock in total.
+     */
+    public boolean reserve(Ingredient ingredient, BigDecimal quantity) {
+        if (!ingredient.getActive()) {
+            return false;
+        }
+        int shards = ingredient.getShardCount();
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int probe = 0; probe < Math.min(shards, MAX_PROBES); probe++) {
+            if (claim(ingredient.getId(), (start + probe) % shards, quantity)) {
+                return true;
+            }
+        }
+        return rebalanceAndReserve(ingredient.getId(), quantity);
+    }
+
+    private boolean claim(Long ingredientId, int shard, BigDecimal quantity) {
+        Boolean claimed = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement statement = connection.prepareStatement(CLAIM_SQL)) {
+                statement.setBigDecimal(1, quantity);
+                statement.setLong(2, ingredientId);
+                statement.setInt(3, shard);
+                statement.setBigDecimal(4, quantity);
+                if (statement.executeUpdate() == 1) {
+                    connection.releaseSavepoint(savepoint);
+                    return true;
+                }
+            }
+            connection.rollback(savepoint);
+            return false;
+        });
+        return Boolean.TRUE.equals(claimed);
+    }
+
+    private boolean rebalanceAndReserve(Long ingredientId, BigDecimal quantity) {
+        lockShards(ingredientId);
+        LockedIngredient ingredient = lockIngredient(ingredientId);
+        if (ingredient == null || !ingredient.active() || ingredient.expired()) {
+            return false;
+        }
+        // Read again under the row lock: a concurrent configure may have replaced the shards
+        List<BigDecimal> shards = lockShards(ingredientId);
+
+        // Another order may have refilled the shards while this one waited for the locks
+        for (int shard = 0; shard < shards.size(); shard++) {
+            if (shards.get(shard).compareTo(quantity) >= 0) {
+                jdbcTemplate.update(UPDATE_SHARD_SQL, shards.get(shard).subtract(quantity), ingredientId, shard);
+                return true;
+            }
+        }
+
+        BigDecimal total = shards.stream().reduce(ingredient.pool(), BigDecimal::add);
+        if (total.compareTo(quantity) < 0) {
+            return false;
+        }
+        BigDecimal remaining = total.subtract(quantity);
+        BigDecimal share = shareOf(remaining, shards.size());
+        List<Object[]> updates = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            updates.add(new Object[]{share, ingredientId, shard});
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SHARD_SQL, updates);
+        }
+        jdbcTemplate.update(UPDATE_POOL_SQL,
+                remaining.subtract(share.multiply(BigDecimal.valueOf(shards.size()))),
+                remaining.compareTo(ingredient.lowStockThreshold()) <= 0,
+                ingredientId);
+        return true;
+    }
+
+    /**
+     * Returns cancelled stock to a random shard, or to the pool when the ingredient is no
+     * longer sharded.
+     */
+    public void release(Ingredient ingredient, BigDecimal quantity) {
+        int shard = ThreadLocalRandom.current().nextInt(ingredient.getShardCount());
+        if (jdbcTemplate.update(RETURN_SQL, quantity, ingredient.getId(), shard) == 0) {
+            jdbcTemplate.update(RETURN_TO_POOL_SQL, quantity, ingredient.getId());
+        }
+    }
+
+    /**
+     * Switches an ingredient to {@code shards} shards, or back to a plain counter for 0.
+     * Existing stock is folded together and spread evenly; the total does not change.
+     */
+    public void configure(Long ingredientId, int shards) {
+        if (shards < 0 || shards > maxShards) {
+            throw new RuntimeException("Shards must be between 0 and " + maxShards);
+        }
+        lockShards(ingredientId);
+        LockedIngredient ingredient = lockIngredient(ingredientId);
+        if (ingredient == null) {
+            throw new RuntimeException("Ingredient not found");
+        }
+        BigDecimal total = lockShards(ingredientId).stream().reduce(ingredient.pool(), BigDecimal::add);
+
+        jdbcTemplate.update(DELETE_SHARDS_SQL, ingredientId);
+        BigDecimal share = shareOf(total, shards);
+        List<Object[]> inserts = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            inserts.add(new Object[]{ingredientId, shard, share});
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SHARD_SQL, inserts);
+        }
+        jdbcTemplate.update(UPDATE_SHARD_COUNT_SQL,
+                total.subtract(share.multiply(BigDecimal.valueOf(shards))), shards, ingredientId);
+    }
+
+    /**
+     * Locks the shards of the retailer's given ingredients; call before locking their rows.
+     */
+    public void lock(Long retailerId, Collection<Long> ingredientIds) {
+        if (!ingredientIds.isEmpty()) {
+            namedJdbcTemplate.query(LOCK_ALL_SQL, new MapSqlParameterSource()
+                    .addValue("retailerId", retailerId)
+                    .addValue("ids", ingredientIds), rs -> {
+            });
+        }
+    }
+
+    /**
+     * Locks the shards of all the retailer's ingredients; call before statements that update
+     * ingredient rows the caller has not named.
+     */
+    public void lockRetailer(Long retailerId) {
+        namedJdbcTemplate.query(LOCK_RETAILER_SQL, new MapSqlParameterSource("retailerId", retailerId), rs -> {
+        });
+    }
+
+    /**
+     * Empties the shards of ingredients whose total is being overwritten in {@code quantity}.
+     * Call before writing the ingredient rows.
+     */
+    public void drain(Collection<Long> ingredientIds) {
+        if (!ingredientIds.isEmpty()) {
+            namedJdbcTemplate.update(DRAIN_SQL, new MapSqlParameterSource("ids", ingredientIds));
+        }
+    }
+
+    public BigDecimal totalQuantity(Long ingredientId) {
+        return jdbcTemplate.queryForObject(TOTAL_SQL, BigDecimal.class, ingredientId);
+    }
+
+    /**
+     * Total stock of each given ingredient, sharded or not, in one query.
+     */
+    public Map<Long, BigDecimal> totalQuantities(Collection<Long> ingredientIds) {
+        Map<Long, BigDecimal> totals = new HashMap<>();
+        if (!ingredientIds.isEmpty()) {
+            namedJdbcTemplate.query(TOTALS_SQL, new MapSqlParameterSource("ids", ingredientIds), rs -> {
+                totals.put(rs.getLong("id"), rs.getBigDecimal("quantity"));
+            });
+        }
+        return totals;
+    }
+
+    /**
+     * Adds shard stock to DTOs read straight from the {@code quantity} column.
+     */
+    public void addShardQuantities(List<IngredientDTO> ingredients) {
+        if (ingredients.isEmpty()) {
+            return;
+        }
+        Map<Long, BigDecimal> sharded = new HashMap<>();
+        namedJdbcTemplate.query(SHARD_TOTALS_SQL,
+                new MapSqlParameterSource("ids", ingredients.stream().map(IngredientDTO::getId).collect(Collectors.toList())),
+                rs -> {
+                    sharded.put(rs.getLong("ingredient_id"), rs.getBigDecimal("quantity"));
+                });
+        if (!sharded.isEmpty()) {
+            for (IngredientDTO ingredient : ingredients) {
+                BigDecimal shardQuantity = sharded.get(ingredient.getId());
+                if (shardQuantity != null) {
+                    ingredient.setQuantity(ingredient.getQuantity().add(shardQuantity));
+                }
+            }
+        }
+    }
+
+    /**
+     * Recomputes the low-stock flag once the current transaction commits. Claims from shards
+     * do not lock the ingredient row, and taking that lock while holding a shard could
+     * deadlock with a rebalance, so the flag is written in a transaction of its own.
+     */
+    public void refreshLowStockAfterCommit(Long ingredientId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refreshTemplate.executeWithoutResult(status -> jdbcTemplate.update(REFRESH_LOW_STOCK_SQL, ingredientId));
+            }
+        });
+    }
+
+    private LockedIngredient lockIngredient(Long ingredientId) {
+        List<LockedIngredient> rows = jdbcTemplate.query(LOCK_INGREDIENT_SQL, (rs, rowNum) -> new LockedIngredient(
+                rs.getBigDecimal("quantity"),
+                rs.getBigDecimal("low_stock_threshold"),
+                rs.getBoolean("active"),
+                rs.getBoolean("expired")), ingredientId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private List<BigDecimal> lockShards(Long ingredientId) {
+        return jdbcTemplate.query(LOCK_SHARDS_SQL, (rs, rowNum) -> rs.getBigDecimal("quantity"), ingredientId);
+    }
+
+    private static BigDecimal shareOf(BigDecimal total, int shards) {
+        return shards == 0 ? BigDecimal.ZERO : total.divide(BigDecimal.valueOf(shards), 2, RoundingMode.DOWN);
+    }
+
+    private record LockedIngredient(BigDecimal pool, BigDecimal lowStockThreshold, boolean active, boolean expired) {
+    }
+}
@@ -0,0 +1,95 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Periodically folds new stock movements into snapshots. Each run marks every committed,
+ * not yet folded movement dated up to {@code now - lag} as folded at the cutoff and adds it to
+ * the ingredient's latest snapshot; only ingredients that moved get a new snapshot.
+ * <p>
+ * {@code created_at} comes from the writing node's clock when the movement is recorded, so a
+ * long transaction or a skewed clock can commit a movement dated before a cutoff that has
+ * already run. Such a movement is not lost: it stays unfolded until the next run, and
+ * {@link StockLedger#quantityAt} counts unfolded movements on top of the snapshot. The lag
+ * only makes that case rare.
+ */
+@Slf4j
+@Component
+public class StockSnapshotter {
+
+    private static final String LAST_CUTOFF_SQL =
+            "SELECT MAX(taken_at) FROM stock_snapshots";
+
+    private static final String FOLD_SQL =
+            "UPDATE stock_movements SET folded_at = ? WHERE folded_at IS NULL AND created_at <= ?";
+
+    private static final String SNAPSHOT_SQL =
+            "INSERT INTO stock_snapshots (ingredient_id, retailer_id, quantity, taken_at) " +
+                    "SELECT m.ingredient_id, m.retailer_id, COALESCE(MAX(s.quantity), 0) + SUM(m.delta), ? " +
+                    "FROM stock_movements m " +
+                    "LEFT JOIN (SELECT ingredient_id, MAX(taken_at) AS taken_at FROM stock_snapshots GROUP BY ingredient_id) l " +
+                    "ON l.ingredient_id = m.ingredient_id " +
+                    "LEFT JOIN stock_snapshots s ON s.ingredient_id = l.ingredient_id AND s.taken_at = l.taken_at " +
+                    "WHERE m.folded_at = ? " +
+                    "GROUP BY m.ingredient_id, m.retailer_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration lag;
+    private final DistributionSummary rowsPerRun;
+    private final Timer snapshotDuration;
+
+    public StockSnapshotter(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.inventory.ledger.snapshot-lag:PT5M}") Duration lag) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.lag = lag;
+        this.rowsPerRun = DistributionSummary.builder("brewhub.inventory.ledger.snapshot.rows").register(meterRegistry);
+        this.snapshotDuration = Timer.builder("brewhub.inventory.ledger.snapshot.duration").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.inventory.ledger.snapshot-cron:0 15 * * * *}")
+    public void snapshotScheduled() {
+        snapshot(StockLedger.now().minus(lag));
+    }
+
+    /**
+     * Snapshots every ingredient with movements up to {@code cutoff} and returns the number
+     * of snapshots written. Cutoffs at or before the previous run are ignored.
+     */
+    public int snapshot(LocalDateTime cutoff) {
+        Timestamp previous = jdbcTemplate.queryForObject(LAST_CUTOFF_SQL, Timestamp.class);
+        Timestamp until = Timestamp.valueOf(cutoff);
+        if (previous != null && !until.after(previous)) {
+            return 0;
+        }
+
+        Timer.Sample sample = Timer.start();
+        // Marking first and summing the marked rows keeps both steps on the same set of movements
+        Integer snapshots = transactionTemplate.execute(status -> {
+            jdbcTemplate.update(FOLD_SQL, until, until);
+            return jdbcTemplate.update(SNAPSHOT_SQL, until, until);
+        });
+        int written = snapshots != null ? snapshots : 0;
+        rowsPerRun.record(written);
+        long nanos = sample.stop(snapshotDuration);
+        if (written > 0) {
+            log.info("Wrote {} stock snapshots up to {} in {} ms", written, cutoff, nanos / 1_000_000);
+        }
+        return written;
+    }
+}
@@ -10,8 +10,10 @@ import java.math.BigDecimal;
 @Table(name = "order_items")
 @Data
 public class OrderItem {
+    // Sequence ids (not IDENTITY) let Hibernate batch the inserts of an order's items
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
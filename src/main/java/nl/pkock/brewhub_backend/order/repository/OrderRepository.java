@@ -1,13 +1,30 @@
 package nl.pkock.brewhub_backend.order.repository;
 
 import nl.pkock.brewhub_backend.order.models.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByCustomerId(Long customerId);
     List<Order> findByRetailerId(Long retailerId);
+
+    // Status changes lock the order row, so a cancel cannot return stock twice or race a shipment
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = ?1")
+    Optional<Order> findByIdForUpdate(Long orderId);
+
+    // Everything an OrderDTO shows, fetched with the orders in a single query
+    @EntityGraph(attributePaths = {"customer", "retailer", "items", "items.ingredient"})
+    List<Order> findWithDetailsByCustomerId(Long customerId);
+
+    @EntityGraph(attributePaths = {"customer", "retailer", "items", "items.ingredient"})
+    List<Order> findWithDetailsByRetailerId(Long retailerId);
 }
\ No newline at end of file
@@ -4,21 +4,32 @@ import lombok.RequiredArgsConstructor;
 import nl.pkock.brewhub_backend.order.dto.*;
 import nl.pkock.brewhub_backend.auth.models.User;
 import nl.pkock.brewhub_backend.inventory.models.Ingredient;
+import nl.pkock.brewhub_backend.inventory.models.StockMovementReason;
 import nl.pkock.brewhub_backend.order.models.Order;
 import nl.pkock.brewhub_backend.order.models.OrderItem;
 import nl.pkock.brewhub_backend.order.models.OrderStatus;
 import nl.pkock.brewhub_backend.order.repository.OrderRepository;
 import nl.pkock.brewhub_backend.auth.repository.UserRepository;
 import nl.pkock.brewhub_backend.inventory.repository.IngredientRepository;
+import nl.pkock.brewhub_backend.inventory.services.IngredientsChangedEvent;
+import nl.pkock.brewhub_backend.inventory.services.LowStockChangedEvent;
+import nl.pkock.brewhub_backend.inventory.services.StockLedger;
+import nl.pkock.brewhub_backend.inventory.services.StockReservations;
+import nl.pkock.brewhub_backend.inventory.services.StockShards;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,6 +38,10 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final IngredientRepository ingredientRepository;
+    private final StockLedger stockLedger;
+    private final StockReservations stockReservations;
+    private final StockShards stockShards;
+    private final ApplicationEventPublisher eventPublisher;
 
     private OrderDTO convertToDTO(Order order) {
         OrderDTO dto = new OrderDTO();
@@ -81,18 +96,23 @@ public class OrderService {
         order.setTotalPrice(calculateTotalPrice(orderItems));
 
         Order savedOrder = orderRepository.save(order);
+        recordMovements(savedOrder, StockMovementReason.ORDER_RESERVE);
+        eventPublisher.publishEvent(new IngredientsChangedEvent(retailer.getId(), ingredientIds(savedOrder)));
         return convertToDTO(savedOrder);
     }
 
     private List<OrderItem> createOrderItems(Order order, List<OrderItemRequest> itemRequests) {
+        Map<Long, Ingredient> ingredients = loadIngredients(order.getRetailer().getId(), itemRequests.stream()
+                .map(OrderItemRequest::getIngredientId)
+                .collect(Collectors.toSet()));
         List<OrderItem> orderItems = new ArrayList<>();
 
         for (OrderItemRequest itemRequest : itemRequests) {
-            Ingredient ingredient = ingredientRepository.findById(itemRequest.getIngredientId())
-                    .orElseThrow(() -> new RuntimeException("Ingredient not found"));
+            Ingredient ingredient = ingredients.get(itemRequest.getIngredientId());
 
-            if (ingredient.getQuantity().compareTo(itemRequest.getQuantity()) < 0) {
-                throw new RuntimeException("Insufficient stock for " + ingredient.getName());
+            // The sweeper flags expired rows nightly; the date check covers the gap until it runs
+            if (ingredient.getExpired() || ingredient.getExpiryDate().isBefore(LocalDate.now())) {
+                throw new RuntimeException(ingredient.getName() + " has expired");
             }
 
             OrderItem orderItem = new OrderItem();
@@ -102,14 +122,75 @@ public class OrderService {
             orderItem.setPricePerUnit(ingredient.getPrice());
             orderItem.setTotalPrice(ingredient.getPrice().multiply(itemRequest.getQuantity()));
             orderItems.add(orderItem);
-
-            ingredient.setQuantity(ingredient.getQuantity().subtract(itemRequest.getQuantity()));
-            ingredientRepository.save(ingredient);
         }
 
+        reserveStock(ingredients, quantitiesByIngredient(orderItems));
         return orderItems;
     }
 
+    /**
+     * Loads the order's ingredients with one query. Ingredients of other retailers are
+     * treated as missing.
+     */
+    private Map<Long, Ingredient> loadIngredients(Long retailerId, Set<Long> ingredientIds) {
+        Map<Long, Ingredient> ingredients = ingredientRepository.findByRetailerIdAndIdIn(retailerId, ingredientIds).stream()
+                .collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+        if (ingredients.size() != ingredientIds.size()) {
+            throw new RuntimeException("Ingredient not found");
+        }
+        return ingredients;
+    }
+
+    private static Set<Long> ingredientIds(Order order) {
+        return order.getItems().stream()
+                .map(item -> item.getIngredient().getId())
+                .collect(Collectors.toSet());
+    }
+
+    private static TreeMap<Long, BigDecimal> quantitiesByIngredient(List<OrderItem> items) {
+        return items.stream().collect(Collectors.groupingBy(item -> item.getIngredient().getId(), TreeMap::new,
+                Collectors.reducing(BigDecimal.ZERO, OrderItem::getQuantity, BigDecimal::add)));
+    }
+
+    // Sharded ingredients are claimed first in id order, then the unsharded rows as one batch,
+    // so orders follow the same shards-before-rows sequence as every other stock writer
+    private void reserveStock(Map<Long, Ingredient> ingredients, TreeMap<Long, BigDecimal> quantities) {
+        TreeMap<Long, BigDecimal> unsharded = new TreeMap<>();
+        quantities.forEach((id, quantity) -> {
+            Ingredient ingredient = ingredients.get(id);
+            if (ingredient.getShardCount() == 0) {
+                unsharded.put(id, quantity);
+            } else if (!stockShards.reserve(ingredient, quantity)) {
+                throw new RuntimeException("Insufficient stock for " + ingredient.getName());
+            }
+        });
+        List<Long> shortIds = stockReservations.reserve(unsharded);
+        if (!shortIds.isEmpty()) {
+            throw new RuntimeException("Insufficient stock for " + ingredients.get(shortIds.get(0)).getName());
+        }
+
+        TreeMap<Long, BigDecimal> changes = new TreeMap<>();
+        quantities.forEach((id, quantity) -> changes.put(id, quantity.negate()));
+        publishLowStockCrossings(ingredients, changes);
+    }
+
+    private void publishLowStockCrossings(Map<Long, Ingredient> ingredients, Map<Long, BigDecimal> changes) {
+        Map<Long, BigDecimal> totals = stockShards.totalQuantities(changes.keySet());
+        changes.forEach((id, change) -> {
+            Ingredient ingredient = ingredients.get(id);
+            BigDecimal threshold = ingredient.getLowStockThreshold();
+            BigDecimal after = totals.get(id);
+            boolean wasLow = after.subtract(change).compareTo(threshold) <= 0;
+            boolean isLow = after.compareTo(threshold) <= 0;
+            if (wasLow != isLow) {
+                if (ingredient.getShardCount() > 0) {
+                    stockShards.refreshLowStockAfterCommit(id);
+                }
+                eventPublisher.publishEvent(new LowStockChangedEvent(ingredient.getRetailer().getId(), id, isLow));
+            }
+        });
+    }
+
     private BigDecimal calculateTotalPrice(List<OrderItem> items) {
         return items.stream()
                 .map(OrderItem::getTotalPrice)
@@ -118,21 +199,21 @@ public class OrderService {
 
     @Transactional(readOnly = true)
     public List<OrderDTO> getUserOrders(Long userId) {
-        return orderRepository.findByCustomerId(userId).stream()
+        return orderRepository.findWithDetailsByCustomerId(userId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public List<OrderDTO> getRetailerOrders(Long retailerId) {
-        return orderRepository.findByRetailerId(retailerId).stream()
+        return orderRepository.findWithDetailsByRetailerId(retailerId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     @Transactional
     public OrderDTO updateOrderStatus(Long retailerId, Long orderId, UpdateOrderStatusRequest request) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         if (!order.getRetailer().getId().equals(retailerId)) {
@@ -160,7 +241,7 @@ public class OrderService {
 
     @Transactional
     public void cancelOrder(Long userId, Long orderId) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         if (!order.getCustomer().getId().equals(userId)) {
@@ -171,17 +252,36 @@ public class OrderService {
             throw new RuntimeException("Can only cancel pending orders");
         }
 
-        returnItemsToInventory(order.getItems());
+        returnItemsToInventory(order);
         order.setStatus(OrderStatus.CANCELLED);
         orderRepository.save(order);
+        recordMovements(order, StockMovementReason.ORDER_RETURN);
+        eventPublisher.publishEvent(new IngredientsChangedEvent(order.getRetailer().getId(), ingredientIds(order)));
     }
 
-    private void returnItemsToInventory(List<OrderItem> items) {
-        for (OrderItem item : items) {
-            Ingredient ingredient = item.getIngredient();
-            ingredient.setQuantity(ingredient.getQuantity().add(item.getQuantity()));
-            ingredientRepository.save(ingredient);
-        }
+    private void returnItemsToInventory(Order order) {
+        TreeMap<Long, BigDecimal> quantities = quantitiesByIngredient(order.getItems());
+        Map<Long, Ingredient> ingredients = loadIngredients(order.getRetailer().getId(), quantities.keySet());
+        TreeMap<Long, BigDecimal> unsharded = new TreeMap<>();
+        quantities.forEach((id, quantity) -> {
+            Ingredient ingredient = ingredients.get(id);
+            if (ingredient.getShardCount() > 0) {
+                stockShards.release(ingredient, quantity);
+            } else {
+                unsharded.put(id, quantity);
+            }
+        });
+        stockReservations.release(unsharded);
+        publishLowStockCrossings(ingredients, quantities);
+    }
+
+    private void recordMovements(Order order, StockMovementReason reason) {
+        Long retailerId = order.getRetailer().getId();
+        stockLedger.record(order.getItems().stream()
+                .map(item -> new StockLedger.Movement(item.getIngredient().getId(), retailerId,
+                        reason == StockMovementReason.ORDER_RESERVE ? item.getQuantity().negate() : item.getQuantity(),
+                        reason, order.getId()))
+                .collect(Collectors.toList()));
     }
 
     @Transactional(readOnly = true)
@@ -49,7 +49,7 @@ public class RatingService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
-        validateOrderForRating(order, customer.getId(), retailerId);
+        validateOrderForRating(order, userId, retailerId);
 
         Rating rating = new Rating();
         rating.setRetailer(retailer);
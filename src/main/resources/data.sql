@@ -7,15 +7,27 @@ CREATE TABLE IF NOT EXISTS users (
                                      last_name VARCHAR(255) NOT NULL,
                                      location VARCHAR(255),
                                      average_rating DECIMAL(3,2),
-                                     total_ratings INTEGER
+                                     total_ratings INTEGER,
+                                     role_mask INTEGER NOT NULL DEFAULT 0
 );
 
+-- Retailer directory lookups use role_mask IN (...) with every mask that has the RETAILER bit (2);
+-- the list must equal UserRole.RETAILER.masksContaining(), which UserRoleTest checks
+CREATE INDEX IF NOT EXISTS idx_users_retailers ON users (id) WHERE role_mask IN (2, 3, 6, 7);
+
 CREATE TABLE IF NOT EXISTS users_roles (
                                            user_id BIGINT,
                                            roles VARCHAR(255),
                                            FOREIGN KEY (user_id) REFERENCES users(id)
 );
 
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+                                              jti VARCHAR(64) PRIMARY KEY,
+                                              user_id BIGINT,
+                                              expires_at TIMESTAMP NOT NULL,
+                                              revoked_at TIMESTAMP NOT NULL
+);
+
 CREATE TABLE IF NOT EXISTS ingredients (
                                            id BIGSERIAL PRIMARY KEY,
                                            name VARCHAR(255) NOT NULL,
@@ -26,10 +38,22 @@ CREATE TABLE IF NOT EXISTS ingredients (
                                            expiry_date DATE NOT NULL,
                                            low_stock_threshold DECIMAL(10,2) NOT NULL,
                                            active BOOLEAN NOT NULL,
+                                           low_stock BOOLEAN NOT NULL DEFAULT false,
+                                           expired BOOLEAN NOT NULL DEFAULT false,
                                            retailer_id BIGINT NOT NULL,
                                            FOREIGN KEY (retailer_id) REFERENCES users(id)
 );
 
+-- The low-stock view only reads flagged, active rows
+CREATE INDEX IF NOT EXISTS idx_ingredients_low_stock ON ingredients (retailer_id) WHERE low_stock AND active;
+
+-- The expiry sweeper scans unflagged rows by expiry date
+CREATE INDEX IF NOT EXISTS idx_ingredients_unexpired ON ingredients (expiry_date) WHERE NOT expired;
+
+-- Ingredient search matches lower(name) with LIKE and word similarity (<%), both served by this index
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_ingredients_name_trgm ON ingredients USING gin (lower(name) gin_trgm_ops);
+
 CREATE TABLE IF NOT EXISTS questions (
                                          id BIGSERIAL PRIMARY KEY,
                                          title VARCHAR(255) NOT NULL,
@@ -95,8 +119,10 @@ CREATE TABLE IF NOT EXISTS orders (
                                       FOREIGN KEY (retailer_id) REFERENCES users(id)
 );
 
+CREATE SEQUENCE IF NOT EXISTS order_items_seq INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS order_items (
-                                           id BIGSERIAL PRIMARY KEY,
+                                           id BIGINT PRIMARY KEY DEFAULT nextval('order_items_seq'),
                                            order_id BIGINT NOT NULL,
                                            ingredient_id BIGINT NOT NULL,
                                            quantity DECIMAL(10,2) NOT NULL,
@@ -172,7 +198,7 @@ CREATE TABLE IF NOT EXISTS guide_tips (
 );
 
 -- Delete existing data
-TRUNCATE TABLE users_roles, votes, reports, answers, questions, ratings, order_items, orders, ingredients, users, guide_tips, guide_sections, guides, recipe_instructions, recipe_ingredients, recipes CASCADE;
+TRUNCATE TABLE users_roles, votes, reports, answers, questions, ratings, order_items, orders, stock_snapshots, stock_movements, ingredient_stock_shards, ingredients, users, guide_tips, guide_sections, guides, recipe_instructions, recipe_ingredients, recipes CASCADE;
 
 -- Insert initial users without explicit IDs
 INSERT INTO users (email, password, first_name, last_name, location, average_rating, total_ratings)
@@ -195,6 +221,12 @@ SELECT id, 'MODERATOR' FROM users WHERE email = 'beermod@example.com';
 INSERT INTO users_roles (user_id, roles)
 SELECT id, 'USER' FROM users WHERE email = 'craftbeer@example.com';
 
+-- Keep the role bitmask in sync with users_roles (USER = 1, RETAILER = 2, MODERATOR = 4)
+UPDATE users u SET role_mask = COALESCE((
+    SELECT SUM(CASE r.roles WHEN 'USER' THEN 1 WHEN 'RETAILER' THEN 2 WHEN 'MODERATOR' THEN 4 ELSE 0 END)
+    FROM users_roles r WHERE r.user_id = u.id
+), 0);
+
 -- Insert ingredients using array unnest for bulk insert
 INSERT INTO ingredients (name, category, quantity, price, low_stock_threshold, active, retailer_id, expiry_date, unit)
 SELECT unnest(ARRAY['Pilsner Malt', 'Cascade Hops', 'Belgian Yeast', 'Citra Hops', 'Munich Malt', 'Wheat Malt', 'Saaz Hops', 'Lager Yeast']),
@@ -207,6 +239,13 @@ SELECT unnest(ARRAY['Pilsner Malt', 'Cascade Hops', 'Belgian Yeast', 'Citra Hops
        CURRENT_DATE + INTERVAL '6 months',
        unnest(ARRAY['KG', 'G', 'G', 'G', 'KG', 'KG', 'G', 'G']);
 
+-- low_stock is maintained by the application; derive it for the seeded rows
+UPDATE ingredients SET low_stock = quantity <= low_stock_threshold;
+
+-- Opening balance in the stock ledger for each seeded ingredient
+INSERT INTO stock_movements (ingredient_id, retailer_id, delta, reason, created_at)
+SELECT id, retailer_id, quantity, 'ADJUSTMENT', CURRENT_TIMESTAMP FROM ingredients;
+
 -- Insert community questions
 INSERT INTO questions (title, content, created_at, updated_at, is_active, is_pinned, author_id)
 VALUES
@@ -270,16 +309,19 @@ VALUES
      (SELECT id FROM users WHERE email = 'craftbeer@example.com'),
      (SELECT id FROM users WHERE email = 'brewery@example.com'));
 
--- Insert order items
-INSERT INTO order_items (order_id, ingredient_id, quantity, price_per_unit, total_price)
+-- Insert order items (ids come from the sequence Hibernate allocates from)
+INSERT INTO order_items (id, order_id, ingredient_id, quantity, price_per_unit, total_price)
 VALUES
-    ((SELECT id FROM orders WHERE notes = 'First order'),
+    (nextval('order_items_seq'),
+     (SELECT id FROM orders WHERE notes = 'First order'),
      (SELECT id FROM ingredients WHERE name = 'Pilsner Malt'),
      10.0, 2.99, 29.90),
-    ((SELECT id FROM orders WHERE notes = 'First order'),
+    (nextval('order_items_seq'),
+     (SELECT id FROM orders WHERE notes = 'First order'),
      (SELECT id FROM ingredients WHERE name = 'Cascade Hops'),
      5.0, 4.99, 24.95),
-    ((SELECT id FROM orders WHERE notes IS NULL),
+    (nextval('order_items_seq'),
+     (SELECT id FROM orders WHERE notes IS NULL),
      (SELECT id FROM ingredients WHERE name = 'Belgian Yeast'),
      6.0, 3.99, 23.94);
 
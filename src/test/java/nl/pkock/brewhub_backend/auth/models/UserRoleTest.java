@@ -0,0 +1,51 @@
+package nl.pkock.brewhub_backend.auth.models;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserRoleTest {
+
+    private static final Pattern RETAILER_INDEX =
+            Pattern.compile("CREATE INDEX IF NOT EXISTS idx_users_retailers .*? WHERE role_mask IN \\(([^)]*)\\);");
+
+    @Test
+    void retailerIndexPredicate_MatchesMasksContainingRetailer() throws IOException {
+        // Arrange
+        String dataSql = new ClassPathResource("data.sql").getContentAsString(StandardCharsets.UTF_8);
+        Matcher matcher = RETAILER_INDEX.matcher(dataSql);
+        assertTrue(matcher.find(), "idx_users_retailers not found in data.sql");
+
+        // Act
+        List<Integer> indexed = Arrays.stream(matcher.group(1).split(","))
+                .map(String::trim)
+                .map(Integer::valueOf)
+                .toList();
+
+        // Assert
+        assertEquals(UserRole.RETAILER.masksContaining(), indexed);
+    }
+
+    @Test
+    void setRoles_DerivesRoleMask() {
+        // Arrange
+        User user = new User();
+
+        // Act
+        user.setRoles(Set.of(UserRole.USER, UserRole.RETAILER));
+
+        // Assert
+        assertEquals(3, user.getRoleMask());
+        assertTrue(user.hasRole(UserRole.RETAILER));
+        assertFalse(user.hasRole(UserRole.MODERATOR));
+    }
+}
@@ -0,0 +1,71 @@
+package nl.pkock.brewhub_backend.auth.security;
+
+import nl.pkock.brewhub_backend.auth.models.User;
+import nl.pkock.brewhub_backend.auth.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrentUserTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private CurrentUser currentUser;
+
+    private User reference;
+
+    @BeforeEach
+    void setUp() {
+        UserPrincipal principal = new UserPrincipal(7L, "user@example.com", null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        reference = new User();
+        reference.setId(7L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void reference_AuthenticatedCaller_IssuesNoLookup() {
+        // Arrange
+        when(userRepository.getReferenceById(7L)).thenReturn(reference);
+
+        // Act
+        User result = currentUser.reference(7L);
+
+        // Assert
+        assertSame(reference, result);
+        verify(userRepository, never()).existsById(any());
+    }
+
+    @Test
+    void reference_OtherUser_ChecksExistence() {
+        // Arrange
+        when(userRepository.existsById(8L)).thenReturn(false);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> currentUser.reference(8L));
+        assertEquals("User not found", exception.getMessage());
+        verify(userRepository, never()).getReferenceById(any());
+    }
+}
@@ -0,0 +1,147 @@
+package nl.pkock.brewhub_backend.auth.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTest {
+
+    private static final String LEGACY_SECRET = "dKz2NJpP9SXYyNG7dQp3vWjDqRNvqdUwCkEYesrwbJ4=";
+    private static final long LIFETIME_MS = 86400000;
+
+    private JwtKeyStore keyStore;
+    private JwtTokenProvider tokenProvider;
+    private UserPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        keyStore = new JwtKeyStore(ephemeralKeys(), LEGACY_SECRET,
+                Instant.now().plus(1, ChronoUnit.HOURS).toString(), LIFETIME_MS);
+        tokenProvider = new JwtTokenProvider(keyStore);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 60000);
+        ReflectionTestUtils.setField(tokenProvider, "stateless", true);
+
+        principal = new UserPrincipal(7L, "retailer@example.com", "secret",
+                List.of(new SimpleGrantedAuthority("ROLE_RETAILER")));
+    }
+
+    @Test
+    void generateToken_SignsWithActiveKeyAndRoundTripsClaims() {
+        // Act
+        String token = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        Claims claims = tokenProvider.parseClaims(token);
+
+        // Assert
+        assertNotNull(claims);
+        assertNotNull(claims.getId());
+        UserPrincipal restored = tokenProvider.getPrincipalFromClaims(claims);
+        assertEquals(7L, restored.getId());
+        assertEquals("retailer@example.com", restored.getEmail());
+        assertEquals("ROLE_RETAILER", restored.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void parseClaims_LegacyHmacTokenBeforeCutoff_IsAccepted() {
+        // Arrange
+        String legacyToken = legacyToken(Jwts.builder());
+
+        // Act
+        Claims claims = tokenProvider.parseClaims(legacyToken);
+
+        // Assert
+        assertNotNull(claims);
+        assertNull(tokenProvider.getPrincipalFromClaims(claims));
+    }
+
+    @Test
+    void parseClaims_LegacyHmacTokenAfterCutoff_IsRejected() {
+        // Arrange
+        JwtKeyStore expiredLegacy = new JwtKeyStore(ephemeralKeys(), LEGACY_SECRET,
+                Instant.now().minus(1, ChronoUnit.MINUTES).toString(), LIFETIME_MS);
+        JwtTokenProvider provider = new JwtTokenProvider(expiredLegacy);
+
+        // Act & Assert
+        assertNull(provider.parseClaims(legacyToken(Jwts.builder())));
+    }
+
+    @Test
+    void parseClaims_HmacTokenWithRoleClaims_IsRejected() {
+        // Arrange
+        String forged = legacyToken(Jwts.builder().claim(JwtTokenProvider.ROLES_CLAIM, List.of("ROLE_MODERATOR")));
+
+        // Act & Assert
+        assertNull(tokenProvider.parseClaims(forged));
+    }
+
+    @Test
+    void constructor_WithoutConfiguredKeyOrEphemeralOptIn_FailsStartup() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new JwtKeyStore(new JwtKeyProperties(), "", "", LIFETIME_MS));
+    }
+
+    @Test
+    void constructor_LegacyCutoffBeyondOneTokenLifetime_FailsStartup() {
+        // Arrange
+        String cutoff = Instant.now().plus(2, ChronoUnit.DAYS).toString();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new JwtKeyStore(ephemeralKeys(), LEGACY_SECRET, cutoff, LIFETIME_MS));
+    }
+
+    @Test
+    void parseClaims_TokenFromUnknownKey_IsRejected() {
+        // Arrange
+        JwtKeyStore otherKeyStore = new JwtKeyStore(ephemeralKeys(), "", "", LIFETIME_MS);
+        JwtTokenProvider otherProvider = new JwtTokenProvider(otherKeyStore);
+        ReflectionTestUtils.setField(otherProvider, "jwtExpirationInMs", 60000);
+        String token = otherProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        // Act & Assert
+        assertNull(tokenProvider.parseClaims(token));
+    }
+
+    @Test
+    void getJwks_PublishesActiveVerificationKey() {
+        // Act
+        @SuppressWarnings("unchecked")
+        List<Map<String, String>> keys = (List<Map<String, String>>) keyStore.getJwks().get("keys");
+
+        // Assert
+        assertEquals(1, keys.size());
+        assertEquals(keyStore.getActiveKeyId(), keys.get(0).get("kid"));
+        assertEquals("RS256", keys.get(0).get("alg"));
+        assertEquals("AQAB", keys.get(0).get("e"));
+    }
+
+    private static String legacyToken(JwtBuilder builder) {
+        return builder
+                .setSubject("7")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(LEGACY_SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private static JwtKeyProperties ephemeralKeys() {
+        JwtKeyProperties properties = new JwtKeyProperties();
+        properties.setAllowEphemeralKey(true);
+        return properties;
+    }
+}
@@ -0,0 +1,76 @@
+package nl.pkock.brewhub_backend.auth.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.pkock.brewhub_backend.auth.exceptions.TooManyLoginAttemptsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginAttemptLimiterTest {
+
+    private LoginAttemptLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new LoginAttemptLimiter(3, 5, 300, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void registerAttempt_ExceedsEmailLimit_ThrowsWithRetryAfter() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            limiter.registerAttempt("user@example.com", "10.0.0." + i);
+        }
+
+        // Act & Assert
+        TooManyLoginAttemptsException exception = assertThrows(TooManyLoginAttemptsException.class,
+                () -> limiter.registerAttempt("USER@example.com ", "10.0.0.9"));
+        assertTrue(exception.getRetryAfterSeconds() > 0);
+    }
+
+    @Test
+    void registerAttempt_ExceedsIpLimit_Throws() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            limiter.registerAttempt("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        // Act & Assert
+        assertThrows(TooManyLoginAttemptsException.class,
+                () -> limiter.registerAttempt("other@example.com", "10.0.0.1"));
+        assertDoesNotThrow(() -> limiter.registerAttempt("other@example.com", "10.0.0.2"));
+    }
+
+    @Test
+    void registerSuccess_SharedIp_OnlyFailuresCountAgainstIt() {
+        // Arrange
+        for (int i = 0; i < 20; i++) {
+            limiter.registerAttempt("user" + i + "@example.com", "10.0.0.1");
+            limiter.registerSuccess("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            limiter.registerAttempt("guess" + i + "@example.com", "10.0.0.1");
+        }
+
+        // Assert
+        assertThrows(TooManyLoginAttemptsException.class,
+                () -> limiter.registerAttempt("guess@example.com", "10.0.0.1"));
+    }
+
+    @Test
+    void registerSuccess_ResetsEmailWindow() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            limiter.registerAttempt("user@example.com", null);
+        }
+
+        // Act
+        limiter.registerSuccess("user@example.com", null);
+
+        // Assert
+        assertDoesNotThrow(() -> limiter.registerAttempt("user@example.com", null));
+    }
+}
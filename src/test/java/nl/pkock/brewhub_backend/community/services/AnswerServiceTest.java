@@ -119,8 +119,10 @@ class AnswerServiceTest {
         when(userRepository.findById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert
-        assertThrows(RuntimeException.class, () ->
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
                 answerService.createAnswer(createRequest, 1L));
+        assertEquals("User not found", exception.getMessage());
+        verify(answerRepository, never()).save(any());
     }
 
     @Test
@@ -1,7 +1,7 @@
 package nl.pkock.brewhub_backend.community.services;
 
 import nl.pkock.brewhub_backend.auth.models.User;
-import nl.pkock.brewhub_backend.auth.repository.UserRepository;
+import nl.pkock.brewhub_backend.auth.security.CurrentUser;
 import nl.pkock.brewhub_backend.community.dto.VoteRequest;
 import nl.pkock.brewhub_backend.community.models.*;
 import nl.pkock.brewhub_backend.community.repositories.AnswerRepository;
@@ -30,7 +30,7 @@ class VoteServiceTest {
     @Mock
     private AnswerRepository answerRepository;
     @Mock
-    private UserRepository userRepository;
+    private CurrentUser currentUser;
 
     @InjectMocks
     private VoteService voteService;
@@ -61,7 +61,7 @@ class VoteServiceTest {
     @Test
     void voteOnQuestion_NewVote_Success() {
         // Arrange
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(currentUser.reference(1L)).thenReturn(testUser);
         when(questionRepository.findById(1L)).thenReturn(Optional.of(testQuestion));
         when(voteRepository.findByUserIdAndQuestionId(1L, 1L)).thenReturn(Optional.empty());
 
@@ -79,7 +79,7 @@ class VoteServiceTest {
         Vote existingVote = new Vote();
         existingVote.setType(VoteType.UPVOTE);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(currentUser.reference(1L)).thenReturn(testUser);
         when(questionRepository.findById(1L)).thenReturn(Optional.of(testQuestion));
         when(voteRepository.findByUserIdAndQuestionId(1L, 1L)).thenReturn(Optional.of(existingVote));
 
@@ -97,7 +97,7 @@ class VoteServiceTest {
         Vote existingVote = new Vote();
         existingVote.setType(VoteType.DOWNVOTE);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(currentUser.reference(1L)).thenReturn(testUser);
         when(questionRepository.findById(1L)).thenReturn(Optional.of(testQuestion));
         when(voteRepository.findByUserIdAndQuestionId(1L, 1L)).thenReturn(Optional.of(existingVote));
 
@@ -113,7 +113,7 @@ class VoteServiceTest {
     @Test
     void voteOnAnswer_NewVote_Success() {
         // Arrange
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(currentUser.reference(1L)).thenReturn(testUser);
         when(answerRepository.findById(1L)).thenReturn(Optional.of(testAnswer));
         when(voteRepository.findByUserIdAndAnswerId(1L, 1L)).thenReturn(Optional.empty());
 
@@ -131,7 +131,7 @@ class VoteServiceTest {
         Vote existingVote = new Vote();
         existingVote.setType(VoteType.UPVOTE);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(currentUser.reference(1L)).thenReturn(testUser);
         when(answerRepository.findById(1L)).thenReturn(Optional.of(testAnswer));
         when(voteRepository.findByUserIdAndAnswerId(1L, 1L)).thenReturn(Optional.of(existingVote));
 
@@ -149,7 +149,7 @@ class VoteServiceTest {
         Vote existingVote = new Vote();
         existingVote.setType(VoteType.DOWNVOTE);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(currentUser.reference(1L)).thenReturn(testUser);
         when(answerRepository.findById(1L)).thenReturn(Optional.of(testAnswer));
         when(voteRepository.findByUserIdAndAnswerId(1L, 1L)).thenReturn(Optional.of(existingVote));
 
@@ -165,17 +165,19 @@ class VoteServiceTest {
     @Test
     void voteOnQuestion_UserNotFound_ThrowsException() {
         // Arrange
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(currentUser.reference(1L)).thenThrow(new RuntimeException("User not found"));
 
         // Act & Assert
-        assertThrows(RuntimeException.class, () ->
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
                 voteService.voteOnQuestion(voteRequest, 1L));
+        assertEquals("User not found", exception.getMessage());
+        verify(voteRepository, never()).save(any());
     }
 
     @Test
     void voteOnQuestion_QuestionNotFound_ThrowsException() {
         // Arrange
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(currentUser.reference(1L)).thenReturn(testUser);
         when(questionRepository.findById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert
@@ -186,17 +188,19 @@ class VoteServiceTest {
     @Test
     void voteOnAnswer_UserNotFound_ThrowsException() {
         // Arrange
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(currentUser.reference(1L)).thenThrow(new RuntimeException("User not found"));
 
         // Act & Assert
-        assertThrows(RuntimeException.class, () ->
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
                 voteService.voteOnAnswer(voteRequest, 1L));
+        assertEquals("User not found", exception.getMessage());
+        verify(voteRepository, never()).save(any());
     }
 
     @Test
     void voteOnAnswer_AnswerNotFound_ThrowsException() {
         // Arrange
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(currentUser.reference(1L)).thenReturn(testUser);
         when(answerRepository.findById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert
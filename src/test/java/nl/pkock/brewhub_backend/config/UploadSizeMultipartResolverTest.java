@@ -0,0 +1,51 @@
+package nl.pkock.brewhub_backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadSizeMultipartResolverTest {
+
+    private final UploadSizeMultipartResolver resolver = new UploadSizeMultipartResolver(DataSize.ofKilobytes(10));
+
+    @Test
+    void resolveMultipart_LargeUploadOnOtherEndpoint_IsRejectedBeforeParsing() {
+        // Arrange
+        MockHttpServletRequest request = multipart("/api/retailer/inventory/import", DataSize.ofKilobytes(11));
+
+        // Act & Assert
+        MaxUploadSizeExceededException exception = assertThrows(MaxUploadSizeExceededException.class,
+                () -> resolver.resolveMultipart(request));
+        assertEquals(DataSize.ofKilobytes(10).toBytes(), exception.getMaxUploadSize());
+    }
+
+    @Test
+    void resolveMultipart_UnknownLengthOnOtherEndpoint_IsRejected() {
+        // Arrange
+        MockHttpServletRequest request = multipart("/api/recipes", null);
+
+        // Act & Assert
+        assertThrows(MaxUploadSizeExceededException.class, () -> resolver.resolveMultipart(request));
+    }
+
+    @Test
+    void resolveMultipart_LargeUploadOnImportJobs_IsPassedToContainer() {
+        // Arrange
+        MockHttpServletRequest request = multipart("/api/retailer/inventory/import/jobs", DataSize.ofKilobytes(200));
+
+        // Act & Assert
+        assertNotNull(resolver.resolveMultipart(request));
+    }
+
+    private MockHttpServletRequest multipart(String uri, DataSize length) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setContentType("multipart/form-data; boundary=x");
+        if (length != null) {
+            request.setContent(new byte[(int) length.toBytes()]);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,144 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import com.opencsv.bean.CsvBindByName;
+import com.opencsv.bean.CsvDate;
+import com.opencsv.bean.CsvToBeanBuilder;
+import lombok.Data;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientCsvDTO;
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngredientCsvParserTest {
+
+    private static final String HEADER =
+            "\"CATEGORY\",\"EXPIRY DATE\",\"LOW STOCK THRESHOLD\",\"NAME\",\"PRICE\",\"QUANTITY\",\"UNIT\"\n";
+
+    @Test
+    void bind_ExportedFormat_ParsesAllColumns() throws IOException {
+        // Arrange
+        IngredientCsvParser parser = new IngredientCsvParser(new StringReader(
+                HEADER + "\"HOPS\",\"2027-03-15\",\"5.00\",\"Citra \"\"T90\"\", pellets\",\"12.50\",\"1E+3\",\"kg\"\n"));
+        IngredientCsvDTO row = new IngredientCsvDTO();
+
+        // Act
+        assertTrue(parser.nextRecord());
+        parser.bind(row);
+
+        // Assert
+        assertEquals("Citra \"T90\", pellets", row.getName());
+        assertEquals(IngredientCategory.HOPS, row.getCategory());
+        assertEquals(LocalDate.of(2027, 3, 15), row.getExpiryDate());
+        assertEquals(new BigDecimal("5.00"), row.getLowStockThreshold());
+        assertEquals(new BigDecimal("12.50"), row.getPrice());
+        assertEquals(new BigDecimal("1E+3"), row.getQuantity());
+        assertEquals("kg", row.getUnit());
+        assertFalse(parser.nextRecord());
+    }
+
+    @Test
+    void bind_ReorderedHeaderAndCrLf_ResolvesColumnsByName() throws IOException {
+        // Arrange
+        IngredientCsvParser parser = new IngredientCsvParser(new StringReader(
+                "Name,Unit,Quantity,Price,Category,Expiry Date,Low Stock Threshold\r\n" +
+                        "Pilsner Malt, kg,25,3.10,grains,2026-12-01,2\r\n" +
+                        "\r\n"));
+        IngredientCsvDTO row = new IngredientCsvDTO();
+
+        // Act
+        assertTrue(parser.nextRecord());
+        parser.bind(row);
+
+        // Assert
+        assertEquals("Pilsner Malt", row.getName());
+        assertEquals("kg", row.getUnit());
+        assertEquals(IngredientCategory.GRAINS, row.getCategory());
+        assertEquals(new BigDecimal("25"), row.getQuantity());
+        assertTrue(parser.nextRecord());
+        assertTrue(parser.isBlankRecord());
+        assertFalse(parser.nextRecord());
+    }
+
+    @Test
+    void bind_InvalidValues_ThrowsWithColumnName() throws IOException {
+        // Arrange
+        IngredientCsvParser parser = new IngredientCsvParser(new StringReader(HEADER +
+                "\"HOPS\",\"2027-02-30\",\"1\",\"A\",\"1\",\"1\",\"kg\"\n" +
+                "\"HOPS\",\"2027-02-01\",\"1\",\"A\",\"abc\",\"1\",\"kg\"\n" +
+                "\"SPICES\",\"2027-02-01\",\"1\",\"A\",\"1\",\"1\",\"kg\"\n"));
+        IngredientCsvDTO row = new IngredientCsvDTO();
+
+        // Act & Assert
+        assertTrue(parser.nextRecord());
+        assertTrue(assertThrows(RuntimeException.class, () -> parser.bind(row)).getMessage().startsWith("Expiry Date"));
+        assertTrue(parser.nextRecord());
+        assertTrue(assertThrows(RuntimeException.class, () -> parser.bind(row)).getMessage().startsWith("Price"));
+        assertTrue(parser.nextRecord());
+        assertTrue(assertThrows(RuntimeException.class, () -> parser.bind(row)).getMessage().startsWith("Unknown category"));
+    }
+
+    /**
+     * Run with {@code -Dbenchmark=true} to compare against opencsv bean binding.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_AgainstBeanBinding() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 300_000; i++) {
+            csv.append("\"HOPS\",\"2027-01-01\",\"5.00\",\"Ingredient ").append(i)
+                    .append("\",\"12.50\",\"").append(i % 500).append(".25\",\"kg\"\n");
+        }
+        String content = csv.toString();
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            IngredientCsvParser parser = new IngredientCsvParser(new StringReader(content));
+            IngredientCsvDTO row = new IngredientCsvDTO();
+            int parsed = 0;
+            while (parser.nextRecord()) {
+                parser.bind(row);
+                parsed++;
+            }
+            long parserNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int bound = new CsvToBeanBuilder<AnnotatedRow>(new StringReader(content))
+                    .withType(AnnotatedRow.class)
+                    .withIgnoreLeadingWhiteSpace(true)
+                    .build()
+                    .parse()
+                    .size();
+            long beanNanos = System.nanoTime() - start;
+
+            assertEquals(bound, parsed);
+            System.out.printf("round %d: parser %d ms, bean binding %d ms (%.1fx)%n", round,
+                    parserNanos / 1_000_000, beanNanos / 1_000_000, (double) beanNanos / parserNanos);
+        }
+    }
+
+    @Data
+    public static class AnnotatedRow {
+        @CsvBindByName(column = "Name")
+        private String name;
+        @CsvBindByName(column = "Category")
+        private String category;
+        @CsvBindByName(column = "Quantity")
+        private BigDecimal quantity;
+        @CsvBindByName(column = "Unit")
+        private String unit;
+        @CsvBindByName(column = "Price")
+        private BigDecimal price;
+        @CsvBindByName(column = "Expiry Date")
+        @CsvDate(value = "yyyy-MM-dd")
+        private LocalDate expiryDate;
+        @CsvBindByName(column = "Low Stock Threshold")
+        private BigDecimal lowStockThreshold;
+    }
+}
@@ -0,0 +1,245 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import nl.pkock.brewhub_backend.auth.models.User;
+import nl.pkock.brewhub_backend.auth.models.UserRole;
+import nl.pkock.brewhub_backend.auth.repository.UserRepository;
+import nl.pkock.brewhub_backend.inventory.dto.CreateIngredientRequest;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientDTO;
+import nl.pkock.brewhub_backend.inventory.dto.StockMovementDTO;
+import nl.pkock.brewhub_backend.inventory.dto.UpdateIngredientRequest;
+import nl.pkock.brewhub_backend.inventory.models.ImportMode;
+import nl.pkock.brewhub_backend.inventory.models.Ingredient;
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+import nl.pkock.brewhub_backend.inventory.models.StockMovementReason;
+import nl.pkock.brewhub_backend.inventory.repository.IngredientRepository;
+import nl.pkock.brewhub_backend.order.dto.CreateOrderRequest;
+import nl.pkock.brewhub_backend.order.dto.OrderDTO;
+import nl.pkock.brewhub_backend.order.dto.OrderItemRequest;
+import nl.pkock.brewhub_backend.order.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockLedgerTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private StockSnapshotter stockSnapshotter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IngredientBulkLoader ingredientBulkLoader;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User retailer;
+    private User customer;
+
+    @BeforeEach
+    void setUp() {
+        retailer = createUser("ledger-retailer-" + System.nanoTime() + "@test.com", UserRole.RETAILER);
+        customer = createUser("ledger-customer-" + System.nanoTime() + "@test.com", UserRole.USER);
+    }
+
+    @Test
+    void quantityAt_AfterOrdersAdjustmentsAndSnapshot_ReconstructsEveryPoint() throws Exception {
+        // Arrange
+        LocalDateTime beforeCreate = tick();
+        IngredientDTO ingredient = inventoryService.createIngredient(retailer.getId(), createRequest("Cascade", "40"));
+        LocalDateTime afterCreate = tick();
+
+        UpdateIngredientRequest update = new UpdateIngredientRequest();
+        update.setQuantity(new BigDecimal("30"));
+        inventoryService.updateIngredient(retailer.getId(), ingredient.getId(), update);
+        LocalDateTime afterAdjust = tick();
+
+        OrderDTO order = orderService.createOrder(customer.getId(), orderFor(ingredient.getId(), "5"));
+        LocalDateTime afterOrder = tick();
+        stockSnapshotter.snapshot(afterOrder);
+
+        // Act
+        orderService.cancelOrder(customer.getId(), order.getId());
+        LocalDateTime afterCancel = tick();
+
+        // Assert
+        assertEquals(0, stockLedger.quantityAt(ingredient.getId(), beforeCreate).compareTo(BigDecimal.ZERO));
+        assertEquals(0, stockLedger.quantityAt(ingredient.getId(), afterCreate).compareTo(new BigDecimal("40")));
+        assertEquals(0, stockLedger.quantityAt(ingredient.getId(), afterAdjust).compareTo(new BigDecimal("30")));
+        assertEquals(0, stockLedger.quantityAt(ingredient.getId(), afterOrder).compareTo(new BigDecimal("25")));
+        assertEquals(0, stockLedger.quantityAt(ingredient.getId(), afterCancel).compareTo(new BigDecimal("30")));
+        assertEquals(0, poolQuantity(ingredient.getId()).compareTo(new BigDecimal("30")));
+
+        List<StockMovementDTO> movements = inventoryService.getStockMovements(retailer.getId(), ingredient.getId(), 10);
+        assertEquals(List.of(StockMovementReason.ORDER_RETURN, StockMovementReason.ORDER_RESERVE,
+                        StockMovementReason.ADJUSTMENT, StockMovementReason.ADJUSTMENT),
+                movements.stream().map(StockMovementDTO::getReason).toList());
+        assertEquals(order.getId(), movements.get(0).getOrderId());
+    }
+
+    @Test
+    void quantityAt_MovementCommittedAfterItsRangeWasSnapshotted_IsCountedAndFoldedLater() throws Exception {
+        // Arrange
+        IngredientDTO ingredient = inventoryService.createIngredient(retailer.getId(), createRequest("Amarillo", "40"));
+        LocalDateTime afterCreate = tick();
+        LocalDateTime dated = tick();
+        LocalDateTime closed = tick();
+        stockSnapshotter.snapshot(closed);
+
+        // Act
+        // A transaction that recorded its movement before the cutoff only commits now
+        jdbcTemplate.update("INSERT INTO stock_movements (ingredient_id, retailer_id, delta, reason, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?)", ingredient.getId(), retailer.getId(), new BigDecimal("-10"),
+                StockMovementReason.ADJUSTMENT.name(), Timestamp.valueOf(dated));
+        BigDecimal beforeNextRun = stockLedger.quantityAt(ingredient.getId(), closed);
+        LocalDateTime next = tick();
+        stockSnapshotter.snapshot(next);
+
+        // Assert
+        assertEquals(0, beforeNextRun.compareTo(new BigDecimal("30")));
+        assertEquals(0, stockLedger.quantityAt(ingredient.getId(), afterCreate).compareTo(new BigDecimal("40")));
+        assertEquals(0, stockLedger.quantityAt(ingredient.getId(), closed).compareTo(new BigDecimal("30")));
+        assertEquals(0, stockLedger.quantityAt(ingredient.getId(), next).compareTo(new BigDecimal("30")));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT quantity FROM stock_snapshots WHERE ingredient_id = ? " +
+                "AND taken_at = ?", BigDecimal.class, ingredient.getId(), Timestamp.valueOf(next)).compareTo(new BigDecimal("30")));
+    }
+
+    @Test
+    void importInventory_AppendAndMerge_RecordsImportMovements() {
+        // Arrange
+        String header = "Name,Category,Quantity,Unit,Price,Expiry Date,Low Stock Threshold\n";
+        String expiry = LocalDate.now().plusMonths(6).toString();
+        MockMultipartFile initial = csv(header + "Saaz,HOPS,12,kg,4.49," + expiry + ",2\n");
+        MockMultipartFile changed = csv(header + "Saaz,HOPS,20,kg,4.49," + expiry + ",2\n");
+
+        // Act
+        inventoryService.importInventory(retailer.getId(), initial, ImportMode.APPEND);
+        Long id = ingredientRepository.findByRetailerIdAndActiveTrue(retailer.getId()).get(0).getId();
+        inventoryService.importInventory(retailer.getId(), changed, ImportMode.MERGE);
+
+        // Assert
+        List<StockMovementDTO> movements = stockLedger.recentMovements(id, 10);
+        assertEquals(2, movements.size());
+        assertTrue(movements.stream().allMatch(movement -> movement.getReason() == StockMovementReason.IMPORT));
+        assertEquals(0, movements.get(0).getDelta().compareTo(new BigDecimal("8")));
+        assertEquals(0, movements.get(1).getDelta().compareTo(new BigDecimal("12")));
+        assertEquals(0, stockLedger.quantityAt(id, LocalDateTime.now()).compareTo(new BigDecimal("20")));
+    }
+
+    @Test
+    void importInventory_MergeAfterConcurrentOrder_RecordsDeltaAgainstCurrentStock() {
+        // Arrange
+        String header = "Name,Category,Quantity,Unit,Price,Expiry Date,Low Stock Threshold\n";
+        String expiry = LocalDate.now().plusMonths(6).toString();
+        inventoryService.importInventory(retailer.getId(), csv(header + "Hallertau,HOPS,12,kg,4.49," + expiry + ",2\n"),
+                ImportMode.APPEND);
+        Long id = ingredientRepository.findByRetailerIdAndActiveTrue(retailer.getId()).get(0).getId();
+        IngredientMerge merge = ingredientBulkLoader.beginMerge(retailer.getId());
+        assertEquals(IngredientMerge.Outcome.UPDATE, merge.plan(2, incoming("Hallertau", "20", expiry)));
+
+        // Act
+        // The order commits after the merge matched its rows but before it writes them
+        orderService.createOrder(customer.getId(), orderFor(id, "5"));
+        transactionTemplate.executeWithoutResult(status -> merge.flushUpdates());
+
+        // Assert
+        StockMovementDTO imported = stockLedger.recentMovements(id, 1).get(0);
+        assertEquals(StockMovementReason.IMPORT, imported.getReason());
+        assertEquals(0, imported.getDelta().compareTo(new BigDecimal("13")));
+        assertEquals(0, stockLedger.quantityAt(id, LocalDateTime.now()).compareTo(new BigDecimal("20")));
+    }
+
+    // Separates the timestamps of consecutive movements
+    private LocalDateTime tick() throws InterruptedException {
+        Thread.sleep(5);
+        LocalDateTime now = StockLedger.now();
+        Thread.sleep(5);
+        return now;
+    }
+
+    private MockMultipartFile csv(String content) {
+        return new MockMultipartFile("file", "inventory.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Ingredient incoming(String name, String quantity, String expiry) {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setName(name);
+        ingredient.setCategory(IngredientCategory.HOPS);
+        ingredient.setQuantity(new BigDecimal(quantity));
+        ingredient.setUnit("kg");
+        ingredient.setPrice(new BigDecimal("4.49"));
+        ingredient.setExpiryDate(LocalDate.parse(expiry));
+        ingredient.setLowStockThreshold(new BigDecimal("2"));
+        return ingredient;
+    }
+
+    private CreateIngredientRequest createRequest(String name, String quantity) {
+        CreateIngredientRequest request = new CreateIngredientRequest();
+        request.setName(name);
+        request.setCategory(IngredientCategory.HOPS);
+        request.setQuantity(new BigDecimal(quantity));
+        request.setUnit("kg");
+        request.setPrice(new BigDecimal("4.99"));
+        request.setExpiryDate(LocalDate.now().plusMonths(6));
+        request.setLowStockThreshold(BigDecimal.TEN);
+        return request;
+    }
+
+    private CreateOrderRequest orderFor(Long ingredientId, String quantity) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setIngredientId(ingredientId);
+        item.setQuantity(new BigDecimal(quantity));
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setRetailerId(retailer.getId());
+        request.setItems(List.of(item));
+        return request;
+    }
+
+    private BigDecimal poolQuantity(Long ingredientId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM ingredients WHERE id = ?", BigDecimal.class, ingredientId);
+    }
+
+    private User createUser(String email, UserRole role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setLocation("Amsterdam");
+        user.setRoles(Set.of(role));
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,131 @@
+package nl.pkock.brewhub_backend.inventory.services;
+
+import nl.pkock.brewhub_backend.auth.models.User;
+import nl.pkock.brewhub_backend.auth.models.UserRole;
+import nl.pkock.brewhub_backend.auth.repository.UserRepository;
+import nl.pkock.brewhub_backend.inventory.dto.BulkInventoryUpdateRequest;
+import nl.pkock.brewhub_backend.inventory.dto.CreateIngredientRequest;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientDTO;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientPatch;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientPatchResult;
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+import nl.pkock.brewhub_backend.inventory.repository.IngredientRepository;
+import nl.pkock.brewhub_backend.order.dto.CreateOrderRequest;
+import nl.pkock.brewhub_backend.order.dto.OrderItemRequest;
+import nl.pkock.brewhub_backend.order.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockShardsTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private BulkInventoryService bulkInventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private StockShards stockShards;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    private User retailer;
+    private User customer;
+    private IngredientDTO ingredient;
+
+    @BeforeEach
+    void setUp() {
+        retailer = createUser("shards-retailer-" + System.nanoTime() + "@test.com", UserRole.RETAILER);
+        customer = createUser("shards-customer-" + System.nanoTime() + "@test.com", UserRole.USER);
+        ingredient = inventoryService.createIngredient(retailer.getId(), createRequest("Fresh Wet Hops", "50"));
+        inventoryService.setHighDemand(retailer.getId(), ingredient.getId(), 8);
+        orderService.createOrder(customer.getId(), orderFor(ingredient.getId(), "7"));
+    }
+
+    @Test
+    void bulkApply_PricePatchOnShardedIngredient_LeavesTotalUnchanged() {
+        // Arrange
+        IngredientPatch patch = new IngredientPatch();
+        patch.setId(ingredient.getId());
+        patch.setPrice(new BigDecimal("5.49"));
+        BulkInventoryUpdateRequest request = new BulkInventoryUpdateRequest();
+        request.setPatches(List.of(patch));
+
+        // Act
+        IngredientPatchResult result = bulkInventoryService.apply(retailer.getId(), request).getPatches().get(0);
+
+        // Assert
+        assertEquals(IngredientPatchResult.Status.UPDATED, result.getStatus());
+        assertEquals(0, stockShards.totalQuantity(ingredient.getId()).compareTo(new BigDecimal("43")));
+        assertEquals(0, ingredientRepository.findById(ingredient.getId()).orElseThrow().getPrice()
+                .compareTo(new BigDecimal("5.49")));
+    }
+
+    @Test
+    void bulkApply_QuantityPatchOnShardedIngredient_ReplacesTotal() {
+        // Arrange
+        IngredientPatch patch = new IngredientPatch();
+        patch.setId(ingredient.getId());
+        patch.setQuantity(new BigDecimal("20"));
+        BulkInventoryUpdateRequest request = new BulkInventoryUpdateRequest();
+        request.setPatches(List.of(patch));
+
+        // Act
+        bulkInventoryService.apply(retailer.getId(), request);
+
+        // Assert
+        assertEquals(0, stockShards.totalQuantity(ingredient.getId()).compareTo(new BigDecimal("20")));
+    }
+
+    private CreateIngredientRequest createRequest(String name, String quantity) {
+        CreateIngredientRequest request = new CreateIngredientRequest();
+        request.setName(name);
+        request.setCategory(IngredientCategory.HOPS);
+        request.setQuantity(new BigDecimal(quantity));
+        request.setUnit("kg");
+        request.setPrice(new BigDecimal("4.99"));
+        request.setExpiryDate(LocalDate.now().plusMonths(6));
+        request.setLowStockThreshold(BigDecimal.TEN);
+        return request;
+    }
+
+    private CreateOrderRequest orderFor(Long ingredientId, String quantity) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setIngredientId(ingredientId);
+        item.setQuantity(new BigDecimal(quantity));
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setRetailerId(retailer.getId());
+        request.setItems(List.of(item));
+        return request;
+    }
+
+    private User createUser(String email, UserRole role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setLocation("Amsterdam");
+        user.setRoles(Set.of(role));
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,388 @@
+package nl.pkock.brewhub_backend.order.service;
+
+import nl.pkock.brewhub_backend.auth.models.User;
+import nl.pkock.brewhub_backend.auth.models.UserRole;
+import nl.pkock.brewhub_backend.auth.repository.UserRepository;
+import nl.pkock.brewhub_backend.inventory.models.Ingredient;
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+import nl.pkock.brewhub_backend.inventory.dto.BulkInventoryUpdateRequest;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientDTO;
+import nl.pkock.brewhub_backend.inventory.dto.IngredientPatch;
+import nl.pkock.brewhub_backend.inventory.dto.PriceRule;
+import nl.pkock.brewhub_backend.inventory.dto.UpdateIngredientRequest;
+import nl.pkock.brewhub_backend.inventory.repository.IngredientRepository;
+import nl.pkock.brewhub_backend.inventory.services.BulkInventoryService;
+import nl.pkock.brewhub_backend.inventory.services.InventoryService;
+import nl.pkock.brewhub_backend.inventory.services.StockShards;
+import nl.pkock.brewhub_backend.order.dto.CreateOrderRequest;
+import nl.pkock.brewhub_backend.order.dto.OrderDTO;
+import nl.pkock.brewhub_backend.order.dto.OrderItemRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ORDERS_PER_THREAD = 10;
+    private static final int INITIAL_STOCK = 50;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private StockShards stockShards;
+
+    @Autowired
+    private BulkInventoryService bulkInventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User retailer;
+    private User customer;
+    private Ingredient hops;
+    private Ingredient malt;
+
+    @BeforeEach
+    void setUp() {
+        retailer = createUser("retailer-" + System.nanoTime() + "@test.com", UserRole.RETAILER);
+        customer = createUser("customer-" + System.nanoTime() + "@test.com", UserRole.USER);
+        hops = createIngredient("Cascade", INITIAL_STOCK);
+        malt = createIngredient("Pilsner Malt", INITIAL_STOCK);
+    }
+
+    @Test
+    void createOrder_ConcurrentOrders_NeverOversells() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int thread = 0; thread < THREADS; thread++) {
+            boolean hopsFirst = thread % 2 == 0;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    // Lines in opposite order on alternating threads; reservation order must not depend on it
+                    CreateOrderRequest request = hopsFirst ? orderFor(hops, malt) : orderFor(malt, hops);
+                    try {
+                        orderService.createOrder(customer.getId(), request);
+                        placed.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        assertTrue(e.getMessage().startsWith("Insufficient stock"), e.getMessage());
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(INITIAL_STOCK, placed.get());
+        assertEquals(THREADS * ORDERS_PER_THREAD - INITIAL_STOCK, rejected.get());
+        assertEquals(0, poolQuantity(hops.getId()).compareTo(BigDecimal.ZERO));
+        assertEquals(0, poolQuantity(malt.getId()).compareTo(BigDecimal.ZERO));
+        assertTrue(ingredientRepository.findById(hops.getId()).orElseThrow().getLowStock());
+    }
+
+    @Test
+    void createOrder_HighDemandIngredient_NeverOversellsAndReportsExactTotal() throws Exception {
+        // Arrange
+        Ingredient wetHops = createIngredient("Fresh Wet Hops", INITIAL_STOCK);
+        inventoryService.setHighDemand(retailer.getId(), wetHops.getId(), 8);
+        orderService.createOrder(customer.getId(), orderFor(wetHops, "7"));
+        assertEquals(0, quantityOf(wetHops).compareTo(BigDecimal.valueOf(INITIAL_STOCK - 7)));
+
+        // Act
+        int placed = placeOrders(wetHops, THREADS, ORDERS_PER_THREAD);
+
+        // Assert
+        assertEquals(INITIAL_STOCK - 7, placed);
+        assertEquals(0, stockShards.totalQuantity(wetHops.getId()).compareTo(BigDecimal.ZERO));
+        assertEquals(0, quantityOf(wetHops).compareTo(BigDecimal.ZERO));
+        assertTrue(ingredientRepository.findById(wetHops.getId()).orElseThrow().getLowStock());
+    }
+
+    @Test
+    void createOrder_ConcurrentIngredientEdits_NeverRestoreSoldStock() throws Exception {
+        for (int shards : new int[]{0, 8}) {
+            // Arrange
+            Ingredient edited = createIngredient("Edited " + shards, INITIAL_STOCK);
+            inventoryService.setHighDemand(retailer.getId(), edited.getId(), shards);
+            AtomicBoolean ordering = new AtomicBoolean(true);
+            ExecutorService editor = Executors.newSingleThreadExecutor();
+            Future<Integer> edits = editor.submit(() -> {
+                int count = 0;
+                while (ordering.get()) {
+                    UpdateIngredientRequest request = new UpdateIngredientRequest();
+                    request.setPrice(new BigDecimal(count % 2 == 0 ? "5.49" : "4.99"));
+                    inventoryService.updateIngredient(retailer.getId(), edited.getId(), request);
+                    count++;
+                }
+                return count;
+            });
+
+            // Act
+            int placed;
+            try {
+                placed = placeOrders(edited, THREADS, ORDERS_PER_THREAD);
+            } finally {
+                ordering.set(false);
+            }
+            int editCount = edits.get(1, TimeUnit.MINUTES);
+            editor.shutdown();
+
+            // Assert
+            assertTrue(editCount > 0);
+            assertEquals(INITIAL_STOCK, placed, "shards: " + shards);
+            assertEquals(0, stockShards.totalQuantity(edited.getId()).compareTo(BigDecimal.ZERO), "shards: " + shards);
+        }
+    }
+
+    @Test
+    void createOrder_MixedLinesDuringBulkPriceRules_DoNotDeadlock() throws Exception {
+        // Arrange
+        Ingredient wetHops = createIngredient("Fresh Wet Hops", INITIAL_STOCK);
+        // Many small shards run dry quickly, so orders often rebalance under the ingredient row lock
+        inventoryService.setHighDemand(retailer.getId(), wetHops.getId(), 32);
+        // Created after the sharded ingredient, so its row sorts after the sharded row
+        Ingredient pellets = createIngredient("Pellet Hops", INITIAL_STOCK);
+        AtomicBoolean ordering = new AtomicBoolean(true);
+        ExecutorService editor = Executors.newSingleThreadExecutor();
+        Future<Integer> bulkUpdates = editor.submit(() -> {
+            int count = 0;
+            while (ordering.get()) {
+                PriceRule rule = new PriceRule();
+                rule.setPercent(new BigDecimal(count % 2 == 0 ? "10" : "-10"));
+                IngredientPatch patch = new IngredientPatch();
+                patch.setId(malt.getId());
+                patch.setLowStockThreshold(BigDecimal.TEN);
+                BulkInventoryUpdateRequest request = new BulkInventoryUpdateRequest();
+                request.setRules(List.of(rule));
+                request.setPatches(List.of(patch));
+                bulkInventoryService.apply(retailer.getId(), request);
+                count++;
+            }
+            return count;
+        });
+
+        // Act
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger placed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    try {
+                        orderService.createOrder(customer.getId(), orderFor(pellets, wetHops));
+                        placed.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        assertTrue(e.getMessage().startsWith("Insufficient stock"), e.getMessage());
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+        } finally {
+            ordering.set(false);
+            executor.shutdown();
+        }
+        int bulkCount = bulkUpdates.get(1, TimeUnit.MINUTES);
+        editor.shutdown();
+
+        // Assert
+        assertTrue(bulkCount > 0);
+        assertEquals(INITIAL_STOCK, placed.get());
+        assertEquals(0, poolQuantity(pellets.getId()).compareTo(BigDecimal.ZERO));
+        assertEquals(0, stockShards.totalQuantity(wetHops.getId()).compareTo(BigDecimal.ZERO));
+    }
+
+    @Test
+    void cancelOrder_ConcurrentCancels_ReturnStockOnce() throws Exception {
+        // Arrange
+        OrderDTO order = orderService.createOrder(customer.getId(), orderFor(hops, "5"));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger cancelled = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int thread = 0; thread < 2; thread++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.cancelOrder(customer.getId(), order.getId());
+                    cancelled.incrementAndGet();
+                } catch (RuntimeException e) {
+                    assertEquals("Can only cancel pending orders", e.getMessage());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(1, cancelled.get());
+        assertEquals(0, poolQuantity(hops.getId()).compareTo(BigDecimal.valueOf(INITIAL_STOCK)));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM stock_movements WHERE order_id = ? AND reason = 'ORDER_RETURN'",
+                Integer.class, order.getId()));
+    }
+
+    /**
+     * Run with {@code -Dbenchmark=true} to compare order throughput on one ingredient by shard count.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_HotIngredientByShardCount() throws Exception {
+        for (int shards : new int[]{0, 4, 16, 32}) {
+            Ingredient hot = createIngredient("Hot " + shards, 1_000_000);
+            inventoryService.setHighDemand(retailer.getId(), hot.getId(), shards);
+            placeOrders(hot, THREADS, 50);
+
+            long start = System.nanoTime();
+            int placed = placeOrders(hot, THREADS, 200);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            assertEquals(THREADS * 200, placed);
+            System.out.printf("%2d shards: %.0f orders/s%n", shards, placed / seconds);
+        }
+    }
+
+    private int placeOrders(Ingredient ingredient, int threads, int ordersPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger placed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ordersPerThread; i++) {
+                    try {
+                        orderService.createOrder(customer.getId(), orderFor(ingredient, "1"));
+                        placed.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        assertTrue(e.getMessage().startsWith("Insufficient stock"), e.getMessage());
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        return placed.get();
+    }
+
+    private BigDecimal quantityOf(Ingredient ingredient) {
+        return inventoryService.getAllIngredients(retailer.getId(), null, null).stream()
+                .filter(dto -> dto.getId().equals(ingredient.getId()))
+                .map(IngredientDTO::getQuantity)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private CreateOrderRequest orderFor(Ingredient ingredient, String quantity) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setIngredientId(ingredient.getId());
+        item.setQuantity(new BigDecimal(quantity));
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setRetailerId(retailer.getId());
+        request.setItems(List.of(item));
+        return request;
+    }
+
+    private CreateOrderRequest orderFor(Ingredient first, Ingredient second) {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setRetailerId(retailer.getId());
+        request.setItems(List.of(item(first), item(second)));
+        return request;
+    }
+
+    private OrderItemRequest item(Ingredient ingredient) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setIngredientId(ingredient.getId());
+        item.setQuantity(BigDecimal.ONE);
+        return item;
+    }
+
+    private BigDecimal poolQuantity(Long ingredientId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM ingredients WHERE id = ?", BigDecimal.class, ingredientId);
+    }
+
+    private User createUser(String email, UserRole role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setLocation("Amsterdam");
+        user.setRoles(Set.of(role));
+        return userRepository.save(user);
+    }
+
+    private Ingredient createIngredient(String name, int quantity) {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setName(name);
+        ingredient.setCategory(IngredientCategory.HOPS);
+        ingredient.setQuantity(BigDecimal.valueOf(quantity));
+        ingredient.setUnit("kg");
+        ingredient.setPrice(new BigDecimal("4.99"));
+        ingredient.setExpiryDate(LocalDate.now().plusMonths(6));
+        ingredient.setLowStockThreshold(BigDecimal.TEN);
+        ingredient.setRetailer(retailer);
+        return ingredientRepository.save(ingredient);
+    }
+}
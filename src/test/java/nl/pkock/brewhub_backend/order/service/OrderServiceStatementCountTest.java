@@ -0,0 +1,232 @@
+package nl.pkock.brewhub_backend.order.service;
+
+import nl.pkock.brewhub_backend.auth.models.User;
+import nl.pkock.brewhub_backend.auth.models.UserRole;
+import nl.pkock.brewhub_backend.auth.repository.UserRepository;
+import nl.pkock.brewhub_backend.inventory.models.Ingredient;
+import nl.pkock.brewhub_backend.inventory.models.IngredientCategory;
+import nl.pkock.brewhub_backend.inventory.repository.IngredientRepository;
+import nl.pkock.brewhub_backend.order.dto.CreateOrderRequest;
+import nl.pkock.brewhub_backend.order.dto.OrderDTO;
+import nl.pkock.brewhub_backend.order.dto.OrderItemDTO;
+import nl.pkock.brewhub_backend.order.dto.OrderItemRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(OrderServiceStatementCountTest.StatementCounting.class)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:brewhub-statements;DB_CLOSE_DELAY=-1")
+class OrderServiceStatementCountTest {
+
+    private static final AtomicInteger STATEMENTS = new AtomicInteger();
+    private static volatile Thread countedThread;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User retailer;
+    private User customer;
+    private List<Ingredient> ingredients;
+
+    @BeforeEach
+    void setUp() {
+        countedThread = Thread.currentThread();
+        retailer = createUser("retailer-" + System.nanoTime() + "@test.com", UserRole.RETAILER);
+        customer = createUser("customer-" + System.nanoTime() + "@test.com", UserRole.USER);
+        ingredients = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            ingredients.add(createIngredient("Ingredient " + i));
+        }
+    }
+
+    @Test
+    void createAndCancelOrder_StatementCountDoesNotGrowWithLineCount() {
+        // Arrange
+        orderService.createOrder(customer.getId(), orderOf(1));
+
+        // Act
+        STATEMENTS.set(0);
+        OrderDTO small = orderService.createOrder(customer.getId(), orderOf(3));
+        int smallCreate = STATEMENTS.getAndSet(0);
+        OrderDTO large = orderService.createOrder(customer.getId(), orderOf(30));
+        int largeCreate = STATEMENTS.getAndSet(0);
+        orderService.cancelOrder(customer.getId(), small.getId());
+        int smallCancel = STATEMENTS.getAndSet(0);
+        orderService.cancelOrder(customer.getId(), large.getId());
+        int largeCancel = STATEMENTS.getAndSet(0);
+
+        // Assert
+        assertEquals(30, large.getItems().size());
+        assertEquals(smallCreate, largeCreate);
+        assertEquals(smallCancel, largeCancel);
+        assertEquals(0, poolQuantity(ingredients.get(29).getId()).compareTo(BigDecimal.valueOf(100)));
+    }
+
+    @Test
+    void getOrders_LoadsOrdersWithCustomerRetailerItemsAndIngredientsInOneStatement() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            orderService.createOrder(customer.getId(), orderOf(3));
+        }
+
+        // Act
+        STATEMENTS.set(0);
+        List<OrderDTO> userOrders = orderService.getUserOrders(customer.getId());
+        int userStatements = STATEMENTS.getAndSet(0);
+        List<OrderDTO> retailerOrders = orderService.getRetailerOrders(retailer.getId());
+        int retailerStatements = STATEMENTS.getAndSet(0);
+
+        // Assert
+        assertEquals(1, userStatements);
+        assertEquals(1, retailerStatements);
+        assertEquals(5, userOrders.size());
+        assertEquals(5, retailerOrders.size());
+        OrderDTO order = retailerOrders.get(0);
+        assertEquals("Test User", order.getCustomerName());
+        assertEquals("Test User", order.getRetailerName());
+        assertEquals(3, order.getItems().size());
+        assertEquals(Set.of("Ingredient 0", "Ingredient 1", "Ingredient 2"), order.getItems().stream()
+                .map(OrderItemDTO::getIngredientName)
+                .collect(Collectors.toSet()));
+    }
+
+    @Test
+    void createOrder_IngredientOfOtherRetailer_IsNotFound() {
+        // Arrange
+        User otherRetailer = createUser("other-" + System.nanoTime() + "@test.com", UserRole.RETAILER);
+        CreateOrderRequest request = orderOf(2);
+        request.setRetailerId(otherRetailer.getId());
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> orderService.createOrder(customer.getId(), request));
+        assertEquals("Ingredient not found", exception.getMessage());
+        assertEquals(0, poolQuantity(ingredients.get(0).getId()).compareTo(BigDecimal.valueOf(100)));
+    }
+
+    private CreateOrderRequest orderOf(int lines) {
+        List<OrderItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setIngredientId(ingredients.get(i).getId());
+            item.setQuantity(BigDecimal.ONE);
+            items.add(item);
+        }
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setRetailerId(retailer.getId());
+        request.setItems(items);
+        return request;
+    }
+
+    private BigDecimal poolQuantity(Long ingredientId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM ingredients WHERE id = ?", BigDecimal.class, ingredientId);
+    }
+
+    private User createUser(String email, UserRole role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setLocation("Amsterdam");
+        user.setRoles(Set.of(role));
+        return userRepository.save(user);
+    }
+
+    private Ingredient createIngredient(String name) {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setName(name);
+        ingredient.setCategory(IngredientCategory.GRAINS);
+        ingredient.setQuantity(BigDecimal.valueOf(100));
+        ingredient.setUnit("kg");
+        ingredient.setPrice(new BigDecimal("2.99"));
+        ingredient.setExpiryDate(LocalDate.now().plusMonths(6));
+        ingredient.setLowStockThreshold(BigDecimal.TEN);
+        ingredient.setRetailer(retailer);
+        return ingredientRepository.save(ingredient);
+    }
+
+    /**
+     * Wraps the data source so every statement execution (a batch counts once) on the test
+     * thread is counted; background work such as price index updates is left out.
+     * Id fetches from a sequence are left out: they happen once per allocated block, not per order.
+     */
+    @TestConfiguration
+    static class StatementCounting {
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? counting(dataSource, DataSource.class) : bean;
+                }
+            };
+        }
+
+        private static <T> T counting(T target, Class<T> type) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (Statement.class.isAssignableFrom(type) && method.getName().startsWith("execute")
+                        && Thread.currentThread() == countedThread) {
+                    STATEMENTS.incrementAndGet();
+                }
+                if (type == DataSource.class && result instanceof Connection connection) {
+                    return counting(connection, Connection.class);
+                }
+                boolean sequenceFetch = args != null && args[0] instanceof String sql && sql.contains("_seq");
+                if (type == Connection.class && result instanceof Statement statement && !sequenceFetch) {
+                    if (statement instanceof CallableStatement callable) {
+                        return counting(callable, CallableStatement.class);
+                    }
+                    if (statement instanceof PreparedStatement prepared) {
+                        return counting(prepared, PreparedStatement.class);
+                    }
+                    return counting(statement, Statement.class);
+                }
+                return result;
+            }));
+        }
+    }
+}